@@ -0,0 +1,111 @@
+package com.dayab.widget;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dayab.widget.chart.ChartProjection;
+import com.dayab.widget.chart.ChartRenderer;
+import com.dayab.widget.chart.RenderResources;
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Время отрисовки графика в BufferedImage размером с панель виджета
+ * frame - кадр без изменения данных (повторная перерисовка),
+ * tick - кадр после обновления открытой свечи ценой из тика.
+ *
+ * Запуск: mvn -Pbenchmark package && java -jar target/benchmarks.jar ChartRendererBenchmark
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ChartRendererBenchmark {
+
+    private static final int WIDTH = 240;
+    private static final int HEIGHT = 150;
+
+    @Param({"48", "1000", "100000"})
+    private int candles;
+
+    @Param({"DARK", "LIGHT"})
+    private CryptoScreamerWidget.Theme theme;
+
+    @Param({"CANDLES", "LINE"})
+    private ChartProjection.Mode mode;
+
+    private CandleSeries series;
+    private RenderResources resources;
+    private ChartRenderer renderer;
+    private BufferedImage image;
+    private Graphics2D g2d;
+    private double tickPrice;
+    private long tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = randomWalk(candles, 42);
+        resources = CryptoScreamerWidget.createRenderResources(theme);
+        renderer = new ChartRenderer();
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        g2d = image.createGraphics();
+        tickPrice = series.getClose(series.size() - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage frame() {
+        renderer.render(g2d, WIDTH, HEIGHT, series, 0, series.size(), mode, resources);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage tick() {
+        // Цена колеблется внутри тела последней свечи, как большинство реальных тиков
+        int last = series.size() - 1;
+        double open = series.getOpen(last);
+        double price = open + (tickPrice - open) * ((tick++ & 1) == 0 ? 0.5 : 1.0);
+        series.set(last, series.getTime(last), open, series.getHigh(last), series.getLow(last),
+                   price, series.getVolume(last));
+        renderer.candleUpdated(last);
+
+        renderer.render(g2d, WIDTH, HEIGHT, series, 0, series.size(), mode, resources);
+        return image;
+    }
+
+    private static CandleSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        CandleSeries result = new CandleSeries(size);
+        double price = 1.0;
+        long time = 1_700_000_000L;
+        for (int i = 0; i < size; i++) {
+            double open = price;
+            double close = Math.max(0.0001, open * (1 + (random.nextDouble() - 0.5) * 0.02));
+            double high = Math.max(open, close) * (1 + random.nextDouble() * 0.005);
+            double low = Math.min(open, close) * (1 - random.nextDouble() * 0.005);
+            result.append(time + i * 60L, open, high, low, close, random.nextDouble() * 1000);
+            price = close;
+        }
+        return result;
+    }
+}
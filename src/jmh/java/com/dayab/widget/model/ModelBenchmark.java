@@ -0,0 +1,98 @@
+package com.dayab.widget.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Горячие методы моделей, которые вызываются на каждом обновлении виджета:
+ * форматирование цены, ликвидности, объема и тренда (через String и в общий буфер)
+ * и проход по свечам с isBullish() и getRange().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+    private static final int CANDLES = 48;
+
+    private PriceData price;
+    private CandleData[] candles;
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        price = new PriceData(new BigDecimal("0.000123456789"), "SCREAM");
+        price.setPriceChangePercent24h(new BigDecimal("12.3456"));
+        price.setLiquidityUsd(new BigDecimal("1234567.89"));
+        price.setVolumeUsd24h(new BigDecimal("98765.4321"));
+
+        Random random = new Random(42);
+        candles = new CandleData[CANDLES];
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+        double close = 1.0;
+        for (int i = 0; i < CANDLES; i++) {
+            double open = close;
+            close = open * (1 + (random.nextDouble() - 0.5) * 0.02);
+            double high = Math.max(open, close) * 1.002;
+            double low = Math.min(open, close) * 0.998;
+            candles[i] = new CandleData(time.plusMinutes(15L * i), BigDecimal.valueOf(open),
+                                        BigDecimal.valueOf(high), BigDecimal.valueOf(low),
+                                        BigDecimal.valueOf(close), BigDecimal.valueOf(random.nextDouble() * 1000));
+        }
+    }
+
+    @Benchmark
+    public void formatToStrings(Blackhole bh) {
+        bh.consume(price.getFormattedPrice());
+        bh.consume(price.getFormattedLiquidity());
+        bh.consume(price.getFormattedVolume());
+        bh.consume(price.getTrend());
+    }
+
+    @Benchmark
+    public int formatToBuffer() {
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        price.appendFormattedPrice(sb).append(' ');
+        price.appendFormattedLiquidity(sb).append(' ');
+        price.appendFormattedVolume(sb).append(' ');
+        price.appendTrend(sb);
+        return sb.length();
+    }
+
+    @Benchmark
+    public int candleDirections() {
+        int bullish = 0;
+        for (CandleData candle : candles) {
+            if (candle.isBullish()) bullish++;
+        }
+        return bullish;
+    }
+
+    @Benchmark
+    public BigDecimal candleRanges() {
+        BigDecimal maxRange = BigDecimal.ZERO;
+        for (CandleData candle : candles) {
+            maxRange = maxRange.max(candle.getRange());
+        }
+        return maxRange;
+    }
+}
@@ -0,0 +1,87 @@
+package com.dayab.widget.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Разбор ответов GeckoTerminal на записанных payload'ах из src/jmh/resources/payloads:
+ * OHLCV на 1000 свечей 15m и Simple API с ценой одного токена.
+ * Логи парсеров уходят в пустой поток - их форматирование входит в замер, вывод в консоль нет.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ApiParsingBenchmark {
+
+    private static final int OHLCV_LIMIT = 1000;
+
+    private RequestScheduler scheduler;
+    private GeckoTerminalApiService service;
+    private PrintStream originalOut;
+    private byte[] ohlcvBody;
+    private String simplePriceBody;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ohlcvBody = readPayload("ohlcv-minute-15.json");
+        simplePriceBody = new String(readPayload("simple-token-price.json"), StandardCharsets.UTF_8);
+
+        // Без хранилища свечей: бенчмарк не трогает диск
+        scheduler = new RequestScheduler();
+        service = new GeckoTerminalApiService(scheduler, false);
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+        service.close();
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public CandleSeries parseOhlcvData() {
+        return service.parseOhlcvData(ohlcvBody, OHLCV_LIMIT);
+    }
+
+    @Benchmark
+    public Object parseSimplePriceData() {
+        return service.parseSimplePriceData(simplePriceBody);
+    }
+
+    private static byte[] readPayload(String name) {
+        try (InputStream in = ApiParsingBenchmark.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Нет записанного ответа: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
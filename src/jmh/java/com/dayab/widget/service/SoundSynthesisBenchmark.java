@@ -0,0 +1,37 @@
+package com.dayab.widget.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Синтез PCM звуков алертов: 2 секунды сигнала о пампе и 200 мс звука обновления.
+ * Аудиосистема не открывается - измеряется только генерация семплов
+ * (в приложении SoundBank делает ее один раз на звук).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SoundSynthesisBenchmark {
+
+    @Benchmark
+    public byte[] synthesizePump() {
+        return SoundBank.synthesizePump();
+    }
+
+    @Benchmark
+    public byte[] synthesizeUpdate() {
+        return SoundBank.synthesizeUpdate();
+    }
+}
@@ -11,6 +11,7 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.MenuItem;
 import java.awt.PopupMenu;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.SystemTray;
 import java.awt.Toolkit;
@@ -23,9 +24,11 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
@@ -43,9 +46,29 @@ import javax.swing.Timer;
 
 import com.formdev.flatlaf.FlatDarculaLaf;
 
-import com.dayab.widget.model.CandleData;
+import com.dayab.widget.alert.AlertContext;
+import com.dayab.widget.alert.AlertEngine;
+import com.dayab.widget.alert.AlertRule;
+import com.dayab.widget.alert.Change24hRule;
+import com.dayab.widget.alert.IndicatorRule;
+import com.dayab.widget.alert.LiquidityDropRule;
+import com.dayab.widget.alert.PriceMoveRule;
+import com.dayab.widget.alert.TickMoveRule;
+import com.dayab.widget.alert.VolumeSpikeRule;
+import com.dayab.widget.chart.ChartProjection;
+import com.dayab.widget.chart.ChartRenderer;
+import com.dayab.widget.chart.RenderResources;
+import com.dayab.widget.indicator.BollingerBandsIndicator;
+import com.dayab.widget.indicator.EmaIndicator;
+import com.dayab.widget.indicator.IndicatorEngine;
+import com.dayab.widget.indicator.RsiIndicator;
+import com.dayab.widget.indicator.VwapIndicator;
+import com.dayab.widget.model.CandleSeries;
+import com.dayab.widget.model.FixedDecimal;
 import com.dayab.widget.model.PriceData;
+import com.dayab.widget.model.TickHistory;
 import com.dayab.widget.service.GeckoTerminalApiService;
+import com.dayab.widget.service.RefreshScheduler;
 import com.dayab.widget.service.SoundAlertService;
 
 /**
@@ -103,7 +126,10 @@ public class CryptoScreamerWidget extends JFrame {
     private JLabel trendLabel;
     private JLabel liquidityLabel;  // Добавляем ликвидность
     private JLabel volumeLabel;     // Добавляем объем
+    private final StringBuilder labelTextBuffer = new StringBuilder(32); // Буфер текста меток
     private CandlestickChartPanel chartPanel;
+    private RenderResources chartResources; // Ресурсы отрисовки графика текущей темы
+    private final Map<Theme, RenderResources> renderResourcesByTheme = new EnumMap<>(Theme.class);
     
     // Системный трей
     private SystemTray systemTray;
@@ -111,19 +137,37 @@ public class CryptoScreamerWidget extends JFrame {
     
     // Данные
     private PriceData currentPriceData;
-    private List<CandleData> candleHistory;
-    private Timer updateTimer;
+    private CandleSeries candleHistory;
+    private RefreshScheduler refreshScheduler;
+    // Тики цены между обновлениями свечей: 720 тиков по 5 секунд - последний час, окно - 5 минут
+    private final TickHistory tickHistory = new TickHistory(720, 5 * 60_000L);
+    // Индикаторы считаются по candleHistory инкрементально; показываются выбранные в меню
+    private static final int INDICATOR_BOLLINGER = 2;
+    private static final int INDICATOR_RSI = 3;
+    private final IndicatorEngine indicators = new IndicatorEngine(
+        new EmaIndicator(20), new VwapIndicator(), new BollingerBandsIndicator(20, 2), new RsiIndicator(14));
+    
+    // Алерты: правила проверяются на каждом тике цены по переиспользуемому снимку
+    private final AlertContext alertContext = new AlertContext();
+    private final AlertEngine alertEngine = new AlertEngine();
+    private final AlertEngine.Listener alertListener = this::onAlert;
+    private AlertRule pumpRule;
+    private boolean pumpFired; // Сработал ли памп на текущем тике
     
     // Настройки
     private boolean soundEnabled = true;
     private int updateInterval = 5000; // 5 секунд
-    private BigDecimal pumpThreshold = new BigDecimal("50");
+    private int candleUpdateInterval = 30000; // График обновляем реже - каждые 30 секунд
+    private static final double REFRESH_JITTER = 0.1; // Случайный сдвиг тиков - до 10% периода
+    private FixedDecimal pumpThreshold = FixedDecimal.of(50);
     private String customSoundFile = null; // Путь к кастомному звуковому файлу
     
     // Настройки временного интервала для свечей
     private String currentTimeframe = "minute";
     private int currentAggregate = 15;
     private int currentLimit = 48;
+    private String loadedCandleKey; // Интервал, для которого загружен candleHistory
+    private static final int HISTORY_LIMIT = 2000; // Глубина истории для масштабирования - столько держит хранилище свечей
     
     // Перетаскивание
     private int mouseX, mouseY;
@@ -201,6 +245,15 @@ public class CryptoScreamerWidget extends JFrame {
         return currentTheme == Theme.DARK ? DARK_SCHEME : LIGHT_SCHEME;
     }
     
+    /**
+     * Ресурсы отрисовки графика для темы (доступно бенчмаркам без создания окна)
+     */
+    static RenderResources createRenderResources(Theme theme) {
+        ColorScheme scheme = theme == Theme.DARK ? DARK_SCHEME : LIGHT_SCHEME;
+        return new RenderResources(scheme.primaryText, scheme.gridMain, scheme.gridSub, scheme.gridMicro,
+                                   scheme.bullish, scheme.bearish, scheme.neutral);
+    }
+    
     public CryptoScreamerWidget() {
         initFonts();
         initIcons();
@@ -304,8 +357,34 @@ public class CryptoScreamerWidget extends JFrame {
     }
     
     private void initData() {
-        candleHistory = new ArrayList<>();
+        candleHistory = new CandleSeries();
         currentPriceData = new PriceData(BigDecimal.ZERO, "💩 GOVNO");
+        initAlerts();
+    }
+    
+    /**
+     * Правила алертов: памп по порогу пользователя, резкое движение, всплеск объема,
+     * отток ликвидности и пересечения индикаторов. Каждое срабатывает один раз
+     * при входе в условие и снова - только после выхода за уровень сброса.
+     */
+    private void initAlerts() {
+        long minute = 60_000L;
+        double threshold = pumpThreshold.doubleValue();
+        pumpRule = new Change24hRule("Памп за 24ч", AlertRule.Direction.ABOVE, threshold, threshold * 0.8,
+                                     10 * minute).asPump();
+        alertEngine.add(pumpRule);
+        alertEngine.add(new TickMoveRule("Рост за 5 минут", AlertRule.Direction.ABOVE, 5, 3, 10 * minute).asPump());
+        alertEngine.add(new TickMoveRule("Падение за 5 минут", AlertRule.Direction.BELOW, -5, -3, 10 * minute));
+        alertEngine.add(new PriceMoveRule("Рост за 4 свечи", 4, AlertRule.Direction.ABOVE, 10, 7, 10 * minute).asPump());
+        alertEngine.add(new PriceMoveRule("Падение за 4 свечи", 4, AlertRule.Direction.BELOW, -10, -7, 10 * minute));
+        alertEngine.add(new VolumeSpikeRule("Всплеск объема", 20, 3, 2, 15 * minute));
+        // 60 тиков по 5 секунд - максимум ликвидности за последние 5 минут
+        alertEngine.add(new LiquidityDropRule("Отток ликвидности", 60, 20, 10, 15 * minute));
+        alertEngine.add(new IndicatorRule("Цена выше верхней полосы BB", INDICATOR_BOLLINGER,
+                                          BollingerBandsIndicator.UPPER, true, AlertRule.Direction.ABOVE, 0, -0.5,
+                                          30 * minute));
+        alertEngine.add(new IndicatorRule("RSI выше 70", INDICATOR_RSI, 0, false, AlertRule.Direction.ABOVE, 70, 65,
+                                          30 * minute));
     }
     
     private void initUI() {
@@ -515,6 +594,10 @@ public class CryptoScreamerWidget extends JFrame {
      * Панель в стиле Apple с непрозрачным тёмным фоном
      */
     private class AppleStylePanel extends JPanel {
+        // Фон перерисовывается под прозрачным графиком на каждом кадре - форма и штрих переиспользуются
+        private final RoundRectangle2D.Float roundRect = new RoundRectangle2D.Float();
+        private final BasicStroke borderStroke = new BasicStroke(0.5f);
+        
         @Override
         protected void paintComponent(Graphics g) {
             Graphics2D g2d = (Graphics2D) g;
@@ -526,13 +609,13 @@ public class CryptoScreamerWidget extends JFrame {
             Color borderColor = getCurrentColorScheme().border;
             
             // Основной фон
-            RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 18, 18);
+            roundRect.setRoundRect(0, 0, getWidth(), getHeight(), 18, 18);
             g2d.setColor(backgroundColor);
             g2d.fill(roundRect);
             
             // Тонкая граница
             g2d.setColor(borderColor);
-            g2d.setStroke(new BasicStroke(0.5f));
+            g2d.setStroke(borderStroke);
             g2d.draw(roundRect);
         }
     }
@@ -541,381 +624,206 @@ public class CryptoScreamerWidget extends JFrame {
      * Универсальный график (свечи или линия) в стиле GeckoTerminal
      */
     private class CandlestickChartPanel extends JPanel {
-        @Override
-        protected void paintComponent(Graphics g) {
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
-            
-            // Очищаем фон (прозрачный!)
-            g2d.setComposite(java.awt.AlphaComposite.Clear);
-            g2d.fillRect(0, 0, getWidth(), getHeight());
-            g2d.setComposite(java.awt.AlphaComposite.SrcOver);
-            
-            if (candleHistory.size() < 2) {
-                // Показываем "загрузка" если нет данных
-                g2d.setColor(getCurrentColorScheme().neutral);
-                g2d.setFont(sfProDisplaySmall);
-                String text = "Загрузка графика...";
-                int textWidth = g2d.getFontMetrics().stringWidth(text);
-                g2d.drawString(text, (getWidth() - textWidth) / 2, getHeight() / 2);
-                return;
-            }
-            
-            if (currentChartType == ChartType.CANDLESTICK) {
-                drawCandlestickChart(g2d);
-            } else {
-                drawLineChart(g2d);
-            }
-        }
-        
-        private void drawLineChart(Graphics2D g2d) {
-            int width = getWidth();
-            int height = getHeight();
-            int leftPadding = 45;
-            int rightPadding = 8;
-            int topPadding = 8;
-            int bottomPadding = 25;
-            
-            // Находим мин, макс и ATH цены
-            BigDecimal minPrice = candleHistory.stream()
-                .map(CandleData::getClose)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-            BigDecimal maxPrice = candleHistory.stream()
-                .map(CandleData::getClose)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ONE);
-            BigDecimal athPrice = maxPrice; // ATH это максимальная цена за период
-            
-            // Расширяем диапазон на 20% вверх и вниз от ATH для лучшего отображения
-            BigDecimal priceRange = maxPrice.subtract(minPrice);
-            if (priceRange.compareTo(BigDecimal.ZERO) == 0) {
-                priceRange = maxPrice.multiply(new BigDecimal("0.01"));
-            }
-            
-            // Рисуем ценовую шкалу слева
-            drawPriceScale(g2d, minPrice, maxPrice, leftPadding, topPadding, height - bottomPadding);
-            
-            int chartWidth = width - leftPadding - rightPadding;
-            int chartHeight = height - topPadding - bottomPadding;
-            
-            // Рисуем центральную ATH линию (как в DYOR.io)
-            int athY = topPadding + (int) ((maxPrice.subtract(athPrice).doubleValue() / priceRange.doubleValue()) * chartHeight);
-            g2d.setColor(getCurrentColorScheme().gridMain);
-            g2d.setStroke(new BasicStroke(1.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 
-                                       0, new float[]{5, 5}, 0)); // Пунктирная линия
-            g2d.drawLine(leftPadding, athY, leftPadding + chartWidth, athY);
-            
-            // Подпись ATH
-            g2d.setFont(new Font("Arial", Font.PLAIN, 9));
-            g2d.setColor(getCurrentColorScheme().primaryText);
-            String athText = "ATH $" + athPrice.setScale(2, BigDecimal.ROUND_HALF_UP).toPlainString();
-            g2d.drawString(athText, leftPadding + 5, athY - 5);
-            
-            // Определяем цвет линии на основе общего тренда
-            BigDecimal firstPrice = candleHistory.get(0).getClose();
-            BigDecimal lastPrice = candleHistory.get(candleHistory.size() - 1).getClose();
-            boolean isUptrend = lastPrice.compareTo(firstPrice) > 0;
-            
-            Color lineColor = isUptrend ? 
-                getCurrentColorScheme().bullish :     // Зеленый для роста
-                getCurrentColorScheme().bearish;      // Красный для падения
-                
-            // Рисуем градиентную заливку под линией (более прозрачную)
-            drawGradientFill(g2d, lineColor, leftPadding, chartWidth, chartHeight, topPadding, bottomPadding, 
-                           minPrice, maxPrice, priceRange);
-            
-            // Рисуем основную линию цены
-            g2d.setColor(lineColor);
-            g2d.setStroke(new BasicStroke(2.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-            
-            int pointSpacing = Math.max(1, chartWidth / (candleHistory.size() - 1));
-            
-            for (int i = 0; i < candleHistory.size() - 1; i++) {
-                CandleData currentCandle = candleHistory.get(i);
-                CandleData nextCandle = candleHistory.get(i + 1);
-                
-                if (currentCandle.getClose() == null || nextCandle.getClose() == null) {
-                    continue;
+        // Отрисовка вынесена в ChartRenderer; панель хранит видимую часть и обрабатывает мышь
+        private final ChartRenderer renderer = new ChartRenderer();
+        
+        // Открытая свеча до и после тика и спарклайн тиков - переиспользуемые области перерисовки
+        private final Rectangle liveBounds = new Rectangle();
+        private final Rectangle newLiveBounds = new Rectangle();
+        private final Rectangle sparklineBounds = new Rectangle();
+        
+        // Видимая часть истории: число свечей (0 - по интервалу) и отступ от последней свечи
+        private static final int MIN_VISIBLE_CANDLES = 10;
+        private static final double ZOOM_STEP = 1.25;
+        private int viewCount;
+        private int viewRightOffset;
+        private int panStartX;
+        private int panStartOffset;
+        
+        CandlestickChartPanel() {
+            // Колесо - масштаб вокруг курсора, перетаскивание - сдвиг по истории,
+            // двойной клик - возврат к последним свечам. Окно двигается за остальные области.
+            addMouseWheelListener(e -> zoom(e.getPreciseWheelRotation() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX()));
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    panStartX = e.getX();
+                    panStartOffset = viewRightOffset;
                 }
                 
-                int x1 = leftPadding + i * pointSpacing;
-                int x2 = leftPadding + (i + 1) * pointSpacing;
-                
-                int y1 = topPadding + (int) ((maxPrice.subtract(currentCandle.getClose()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                int y2 = topPadding + (int) ((maxPrice.subtract(nextCandle.getClose()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                
-                g2d.drawLine(x1, y1, x2, y2);
-            }
-            
-            // Рисуем точки только на начале и конце (как в DYOR.io)
-            g2d.setColor(lineColor);
-            int[] keyIndices = {0, candleHistory.size() - 1};
-            
-            for (int i : keyIndices) {
-                if (i >= candleHistory.size()) continue;
-                CandleData candle = candleHistory.get(i);
-                if (candle.getClose() == null) continue;
-                
-                int x = leftPadding + i * pointSpacing;
-                int y = topPadding + (int) ((maxPrice.subtract(candle.getClose()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                
-                // Белый круг с цветной обводкой
-                g2d.setColor(Color.WHITE);
-                g2d.fillOval(x - 4, y - 4, 8, 8);
-                g2d.setColor(lineColor);
-                g2d.setStroke(new BasicStroke(2.0f));
-                g2d.drawOval(x - 4, y - 4, 8, 8);
-            }
-            
-            // Рисуем временные метки снизу
-            drawTimeLabels(g2d, leftPadding, chartWidth, height - bottomPadding + 5);
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (e.getButton() == MouseEvent.BUTTON3) {
+                        showContextMenu(SwingUtilities.convertMouseEvent(CandlestickChartPanel.this, e, 
+                                                                         CryptoScreamerWidget.this));
+                    } else if (e.getClickCount() == 2) {
+                        resetView();
+                    }
+                }
+            });
+            addMouseMotionListener(new MouseMotionAdapter() {
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    if (SwingUtilities.isLeftMouseButton(e)) {
+                        pan(e.getX());
+                    }
+                }
+            });
         }
         
-        private void drawCandlestickChart(Graphics2D g2d) {
-            int width = getWidth();
-            int height = getHeight();
-            int leftPadding = 45; // Увеличиваем левый отступ для ценовой шкалы
-            int rightPadding = 8;
-            int topPadding = 8;
-            int bottomPadding = 25; // Увеличиваем нижний отступ для временных меток
-            
-            // Находим мин и макс цены
-            BigDecimal minPrice = candleHistory.stream()
-                .map(CandleData::getLow)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-            BigDecimal maxPrice = candleHistory.stream()
-                .map(CandleData::getHigh)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ONE);
+        /**
+         * Возвращает график к последним свечам в масштабе выбранного интервала
+         */
+        void resetView() {
+            viewCount = 0;
+            viewRightOffset = 0;
+            repaint();
+        }
+        
+        private int visibleCount() {
+            int size = candleHistory.size();
+            int count = viewCount > 0 ? viewCount : currentLimit;
+            return Math.min(size, Math.max(count, 2));
+        }
+        
+        /**
+         * Меняет число видимых свечей так, чтобы свеча под курсором осталась на месте
+         */
+        private void zoom(double factor, int mouseX) {
+            int size = candleHistory.size();
+            if (size < 2) return;
             
-            BigDecimal priceRange = maxPrice.subtract(minPrice);
-            if (priceRange.compareTo(BigDecimal.ZERO) == 0) {
-                priceRange = maxPrice.multiply(new BigDecimal("0.01"));
+            int count = visibleCount();
+            int newCount = (int) Math.round(count * factor);
+            if (newCount == count) {
+                newCount += factor > 1 ? 1 : -1; // На малом числе свечей шаг округляется до нуля
             }
+            newCount = Math.max(Math.min(MIN_VISIBLE_CANDLES, size), Math.min(size, newCount));
+            if (newCount == count) return;
             
-            // Рисуем ценовую шкалу слева
-            drawPriceScale(g2d, minPrice, maxPrice, leftPadding, topPadding, height - bottomPadding);
+            ChartProjection projection = renderer.getProjection();
+            int chartWidth = Math.max(1, projection.getChartWidth());
+            double fraction = Math.max(0, Math.min(1, (mouseX - projection.getLeft()) / (double) chartWidth));
+            int from = size - viewRightOffset - count;
+            double anchor = from + fraction * count;
+            int newFrom = (int) Math.round(anchor - fraction * newCount);
+            newFrom = Math.max(0, Math.min(size - newCount, newFrom));
             
-            int chartWidth = width - leftPadding - rightPadding;
-            int chartHeight = height - topPadding - bottomPadding;
-            
-            // Ширина свечи и расстояние
-            int candleWidth = Math.max(1, chartWidth / candleHistory.size());
-            int candleSpacing = Math.max(0, candleWidth / 4);
-            
-            // Рисуем свечи
-            for (int i = 0; i < candleHistory.size(); i++) {
-                CandleData candle = candleHistory.get(i);
-                
-                if (candle.getHigh() == null || candle.getLow() == null || 
-                    candle.getOpen() == null || candle.getClose() == null) {
-                    continue;
-                }
-                
-                int x = leftPadding + i * (candleWidth + candleSpacing);
-                
-                // Координаты Y для high, low, open, close
-                int highY = topPadding + (int) ((maxPrice.subtract(candle.getHigh()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                int lowY = topPadding + (int) ((maxPrice.subtract(candle.getLow()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                int openY = topPadding + (int) ((maxPrice.subtract(candle.getOpen()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                int closeY = topPadding + (int) ((maxPrice.subtract(candle.getClose()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                
-                // Цвета как в GeckoTerminal  
-                Color candleColor;
-                if (candle.isBullish()) {
-                    candleColor = getCurrentColorScheme().bullish; // Зеленый для роста (close > open)
-                } else if (candle.isBearish()) {
-                    candleColor = getCurrentColorScheme().bearish; // Красный для падения (close < open)
-                } else {
-                    candleColor = getCurrentColorScheme().neutral; // Серый
-                }
-                
-                g2d.setColor(candleColor);
-                g2d.setStroke(new BasicStroke(1.0f));
-                
-                // Рисуем фитиль (high-low линия)
-                int wickX = x + candleWidth / 2;
-                g2d.drawLine(wickX, highY, wickX, lowY);
-                
-                // Рисуем тело свечи
-                int bodyTop = Math.min(openY, closeY);
-                int bodyHeight = Math.abs(closeY - openY);
-                
-                if (bodyHeight < 1) bodyHeight = 1; // Минимальная высота
-                
-                if (candle.isBullish()) {
-                    // Бычья свеча (зеленая, цена выросла) - заполненная
-                    g2d.fillRect(x, bodyTop, candleWidth, bodyHeight);
-                } else if (candle.isBearish()) {
-                    // Медвежья свеча (красная, цена упала) - заполненная  
-                    g2d.fillRect(x, bodyTop, candleWidth, bodyHeight);
-                } else {
-                    // Доджи свеча (серая, цена не изменилась) - только линия
-                    g2d.drawRect(x, bodyTop, candleWidth, bodyHeight);
-                }
-            }
-            
-            // Рисуем временные метки снизу
-            drawTimeLabels(g2d, leftPadding, chartWidth, height - bottomPadding + 5);
+            viewCount = newCount;
+            viewRightOffset = size - newFrom - newCount;
+            repaint();
         }
         
         /**
-         * Рисует градиентную заливку под линией графика
+         * Сдвигает видимую часть вслед за курсором: вправо - к более старым свечам
          */
-        private void drawGradientFill(Graphics2D g2d, Color lineColor, int leftPadding, int chartWidth, 
-                                    int chartHeight, int topPadding, int bottomPadding, 
-                                    BigDecimal minPrice, BigDecimal maxPrice, BigDecimal priceRange) {
-            if (candleHistory.size() < 2) return;
+        private void pan(int mouseX) {
+            int size = candleHistory.size();
+            int count = visibleCount();
+            if (size <= count) return;
             
-            // Создаем путь для заливки
-            java.awt.geom.Path2D.Float path = new java.awt.geom.Path2D.Float();
-            
-            int pointSpacing = Math.max(1, chartWidth / (candleHistory.size() - 1));
-            
-            // Начинаем с первой точки
-            CandleData firstCandle = candleHistory.get(0);
-            if (firstCandle.getClose() != null) {
-                int x = leftPadding;
-                int y = topPadding + (int) ((maxPrice.subtract(firstCandle.getClose()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                path.moveTo(x, y);
-                
-                // Добавляем все остальные точки
-                for (int i = 1; i < candleHistory.size(); i++) {
-                    CandleData candle = candleHistory.get(i);
-                    if (candle.getClose() == null) continue;
-                    
-                    x = leftPadding + i * pointSpacing;
-                    y = topPadding + (int) ((maxPrice.subtract(candle.getClose()).doubleValue() / priceRange.doubleValue()) * chartHeight);
-                    path.lineTo(x, y);
-                }
-                
-                // Замыкаем путь до нижней части графика
-                int lastX = leftPadding + (candleHistory.size() - 1) * pointSpacing;
-                int bottomY = topPadding + chartHeight;
-                path.lineTo(lastX, bottomY);
-                path.lineTo(leftPadding, bottomY);
-                path.closePath();
-                
-                // Создаем градиент от цвета линии к прозрачному
-                Color startColor = new Color(lineColor.getRed(), lineColor.getGreen(), lineColor.getBlue(), 80);
-                Color endColor = new Color(lineColor.getRed(), lineColor.getGreen(), lineColor.getBlue(), 10);
-                
-                java.awt.GradientPaint gradient = new java.awt.GradientPaint(
-                    0, topPadding, startColor,
-                    0, bottomY, endColor
-                );
-                
-                g2d.setPaint(gradient);
-                g2d.fill(path);
+            int chartWidth = Math.max(1, renderer.getProjection().getChartWidth());
+            int shift = (int) Math.round((mouseX - panStartX) * (double) count / chartWidth);
+            int offset = Math.max(0, Math.min(size - count, panStartOffset + shift));
+            if (offset != viewRightOffset) {
+                viewRightOffset = offset;
+                repaint();
             }
         }
         
         /**
-         * Рисует ценовую шкалу слева от графика
+         * Обновляет открытую свечу ценой из тика.
+         * Если диапазон цен графика не изменился, перерисовывается только объединение
+         * старой и новой области свечи, иначе - весь график.
          */
-        private void drawPriceScale(Graphics2D g2d, BigDecimal minPrice, BigDecimal maxPrice, 
-                                   int leftPadding, int topPadding, int bottomY) {
-            g2d.setColor(getCurrentColorScheme().primaryText);
-            g2d.setFont(new Font("Arial", Font.PLAIN, 11));
+        void updateLivePrice(double price) {
+            int last = candleHistory.size() - 1;
+            if (last < 1 || !(price > 0)) return;
             
-            // Вычисляем ширину области графика
-            int chartWidth = getWidth() - leftPadding - 8; // 8 это rightPadding
+            long time = candleHistory.getLastTime();
+            long period = GeckoTerminalApiService.getPeriodSeconds(currentTimeframe, currentAggregate);
+            // Последняя свеча уже закрыта - новую принесет обновление графика
+            if (java.time.Instant.now().getEpochSecond() >= time + period) return;
             
-            // Количество основных делений на шкале
-            int mainDivisions = 5;
-            BigDecimal priceStep = maxPrice.subtract(minPrice).divide(new BigDecimal(mainDivisions), 6, BigDecimal.ROUND_HALF_UP);
+            double oldClose = candleHistory.getClose(last);
+            if (oldClose == price) return;
             
-            // Рисуем основные деления с подписями
-            for (int i = 0; i <= mainDivisions; i++) {
-                BigDecimal price = minPrice.add(priceStep.multiply(new BigDecimal(i)));
-                int y = bottomY - (i * (bottomY - topPadding) / mainDivisions);
-                
-                // Форматируем цену
-                String priceText;
-                if (price.compareTo(new BigDecimal("0.01")) < 0) {
-                    priceText = "$" + price.setScale(4, BigDecimal.ROUND_HALF_UP).toPlainString();
-                } else {
-                    priceText = "$" + price.setScale(2, BigDecimal.ROUND_HALF_UP).toPlainString();
-                }
-                
-                // Рисуем текст справа от левого края
-                g2d.drawString(priceText, 2, y + 3);
-                
-                // Рисуем основную горизонтальную линию сетки (более яркую)
-                g2d.setColor(getCurrentColorScheme().gridMain);
-                g2d.setStroke(new BasicStroke(0.8f));
-                g2d.drawLine(leftPadding, y, getWidth() - 8, y);
-                
-                // Возвращаем цвет текста
-                g2d.setColor(getCurrentColorScheme().primaryText);
-            }
+            // Индикаторы меняются на всей ширине открытой свечи и в легенде - их рисуем целиком
+            boolean hadBounds = !indicators.hasVisible()
+                && renderer.liveCandleBounds(candleHistory, projectionMode(), liveBounds);
+            double high = Math.max(candleHistory.getHigh(last), price);
+            double low = Math.min(candleHistory.getLow(last), price);
+            candleHistory.set(last, time, candleHistory.getOpen(last), high, low, price, candleHistory.getVolume(last));
+            renderer.candleUpdated(last);
             
-            // Рисуем промежуточные линии между основными делениями
-            int subDivisions = 2; // Количество промежуточных линий между основными
-            for (int i = 0; i < mainDivisions; i++) {
-                for (int j = 1; j <= subDivisions; j++) {
-                    int y = bottomY - ((i * subDivisions + j) * (bottomY - topPadding) / (mainDivisions * subDivisions));
-                    
-                    // Рисуем тонкую промежуточную линию
-                    g2d.setColor(getCurrentColorScheme().gridSub);
-                    g2d.setStroke(new BasicStroke(0.3f));
-                    g2d.drawLine(leftPadding, y, getWidth() - 8, y);
-                }
-            }
+            // График сдвинут к старым свечам - открытая свеча не видна
+            if (viewRightOffset > 0) return;
             
-            // Добавляем дополнительные мелкие деления для еще большей детализации
-            int microDivisions = 5; // Еще более мелкие линии
-            for (int i = 0; i < mainDivisions * subDivisions; i++) {
-                for (int j = 1; j < microDivisions; j++) {
-                    int y = bottomY - ((i * microDivisions + j) * (bottomY - topPadding) / (mainDivisions * subDivisions * microDivisions));
-                    
-                    // Рисуем очень тонкие микро-линии (только в правой части графика)
-                    g2d.setColor(getCurrentColorScheme().gridMicro);
-                    g2d.setStroke(new BasicStroke(0.2f));
-                    g2d.drawLine(leftPadding + chartWidth * 3/4, y, getWidth() - 8, y);
-                }
+            if (!hadBounds || !renderer.isLayoutUnchanged(oldClose, price, high, low)) {
+                repaint();
+                return;
             }
+            renderer.reprojectLast();
+            renderer.liveCandleBounds(candleHistory, projectionMode(), newLiveBounds);
+            liveBounds.add(newLiveBounds);
+            repaint(liveBounds);
         }
         
         /**
-         * Рисует временные метки снизу графика
+         * Перерисовывает спарклайн после нового тика
          */
-        private void drawTimeLabels(Graphics2D g2d, int leftPadding, int chartWidth, int y) {
-            if (candleHistory.isEmpty()) return;
+        void ticksUpdated() {
+            ChartRenderer.sparklineBounds(getWidth(), sparklineBounds);
+            repaint(sparklineBounds);
+        }
+        
+        private ChartProjection.Mode projectionMode() {
+            return currentChartType == ChartType.CANDLESTICK ? ChartProjection.Mode.CANDLES : ChartProjection.Mode.LINE;
+        }
+        
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g;
             
-            g2d.setColor(getCurrentColorScheme().primaryText);
-            g2d.setFont(new Font("Arial", Font.PLAIN, 11));
+            // Очищаем фон (прозрачный!)
+            g2d.setComposite(java.awt.AlphaComposite.Clear);
+            g2d.fillRect(0, 0, getWidth(), getHeight());
+            g2d.setComposite(java.awt.AlphaComposite.SrcOver);
             
-            // Показываем время для первой, средней и последней свечи
-            int[] indices = {0, candleHistory.size() / 2, candleHistory.size() - 1};
+            if (candleHistory.size() < 2) {
+                renderer.invalidate();
+                // Показываем "загрузка" если нет данных
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2d.setColor(chartResources.neutral);
+                g2d.setFont(sfProDisplaySmall);
+                String text = "Загрузка графика...";
+                int textWidth = g2d.getFontMetrics().stringWidth(text);
+                g2d.drawString(text, (getWidth() - textWidth) / 2, getHeight() / 2);
+                return;
+            }
             
-            for (int i : indices) {
-                if (i >= candleHistory.size()) continue;
-                
-                CandleData candle = candleHistory.get(i);
-                if (candle.getTimestamp() == null) continue;
-                
-                // Форматируем время в MSK
-                java.time.format.DateTimeFormatter formatter = 
-                    java.time.format.DateTimeFormatter.ofPattern("HH:mm");
-                String timeText = candle.getTimestamp().format(formatter);
-                
-                // Вычисляем позицию X для метки
-                int candleWidth = Math.max(1, chartWidth / candleHistory.size());
-                int candleSpacing = Math.max(0, candleWidth / 4);
-                int x = leftPadding + i * (candleWidth + candleSpacing) + candleWidth / 2;
-                
-                // Центрируем текст
-                int textWidth = g2d.getFontMetrics().stringWidth(timeText);
-                g2d.drawString(timeText, x - textWidth / 2, y + 12);
+            // Видимая часть: viewCount свечей, заканчивающихся за viewRightOffset до последней
+            int size = candleHistory.size();
+            int count = visibleCount();
+            viewRightOffset = Math.max(0, Math.min(viewRightOffset, size - count));
+            int to = size - viewRightOffset;
+            
+            renderer.render(g2d, getWidth(), getHeight(), candleHistory, to - count, to, 
+                            projectionMode(), chartResources);
+            
+            if (indicators.hasVisible()) {
+                // Догоняем изменения ряда: обычно это пересчет одной открытой свечи
+                indicators.sync(candleHistory);
+                renderer.renderIndicators(g2d, indicators);
             }
+            renderer.renderSparkline(g2d, tickHistory);
         }
     }
     
     private void applyTheme() {
+        // Ресурсы графика создаются один раз на тему - отрисовка кадра их только читает
+        chartResources = renderResourcesByTheme.computeIfAbsent(currentTheme, CryptoScreamerWidget::createRenderResources);
+        
         Color textColor = getCurrentColorScheme().primaryText;
         Color secondaryTextColor = getCurrentColorScheme().secondaryText;
         Color tertiaryTextColor = getCurrentColorScheme().tertiaryText;
@@ -987,7 +895,8 @@ public class CryptoScreamerWidget extends JFrame {
                 currentTimeframe = timeframe;
                 currentAggregate = aggregate;
                 currentLimit = limit;
-                updateCandleData(); // Обновляем график с новым интервалом
+                chartPanel.resetView();
+                refreshCandlesNow(); // Обновляем график с новым интервалом
                 
                 if (trayIcon != null) {
                     trayIcon.displayMessage("📊 Интервал изменен", 
@@ -1127,9 +1036,10 @@ public class CryptoScreamerWidget extends JFrame {
                 "Введите процент пампа для уведомления:", pumpThreshold.toString());
             if (input != null && !input.trim().isEmpty()) {
                 try {
-                    BigDecimal newThreshold = new BigDecimal(input.trim());
-                    if (newThreshold.compareTo(BigDecimal.ZERO) > 0 && newThreshold.compareTo(new BigDecimal("1000")) <= 0) {
+                    FixedDecimal newThreshold = FixedDecimal.parse(input.trim());
+                    if (newThreshold.signum() > 0 && newThreshold.compareTo(1000, 0) <= 0) {
                         pumpThreshold = newThreshold;
+                        pumpRule.setLevels(newThreshold.doubleValue(), newThreshold.doubleValue() * 0.8);
                         if (trayIcon != null) {
                             trayIcon.displayMessage("⚡ Порог изменен", 
                                 "Уведомления при пампе от " + pumpThreshold + "%", 
@@ -1161,6 +1071,27 @@ public class CryptoScreamerWidget extends JFrame {
             applyTheme();
         });
         
+        // Подменю индикаторов поверх графика
+        JMenu indicatorMenu = new JMenu("📐 Индикаторы");
+        
+        for (int i = 0; i < indicators.getIndicatorCount(); i++) {
+            int indicator = i;
+            String name = indicators.getIndicator(indicator).getName();
+            JMenuItem indicatorItem = new JMenuItem(name);
+            
+            if (indicators.isVisible(indicator)) {
+                indicatorItem.setText("✓ " + name);
+                indicatorItem.setForeground(getCurrentColorScheme().bullish);
+            }
+            
+            indicatorItem.addActionListener(ev -> {
+                indicators.setVisible(indicator, !indicators.isVisible(indicator));
+                chartPanel.repaint();
+            });
+            
+            indicatorMenu.add(indicatorItem);
+        }
+        
         JMenuItem hideItem = new JMenuItem("👁️ Скрыть в трей");
         hideItem.addActionListener(ev -> setVisible(false));
         
@@ -1169,6 +1100,7 @@ public class CryptoScreamerWidget extends JFrame {
         
         menu.add(timeframeMenu);
         menu.add(chartTypeMenu);
+        menu.add(indicatorMenu);
         menu.add(layoutMenu);
         menu.addSeparator();
         menu.add(soundMenu);
@@ -1241,44 +1173,82 @@ public class CryptoScreamerWidget extends JFrame {
     }
     
     private void startMonitoring() {
-        // Первоначальная загрузка
-        updatePriceData();
-        updateCandleData();
-        
-        // Таймер обновления каждые 5 секунд
-        updateTimer = new Timer(updateInterval, e -> {
-            updatePriceData();
-            // График обновляем реже - каждые 30 секунд
-            if (System.currentTimeMillis() % 30000 < updateInterval) {
-                updateCandleData();
-            }
-        });
-        updateTimer.start();
+        // Первая загрузка выполняется первым тиком каждого ресурса
+        refreshScheduler = new RefreshScheduler();
+        refreshScheduler.schedule("price", updateInterval, REFRESH_JITTER, this::updatePriceData);
+        // Решение о полной или инкрементальной загрузке читает candleHistory - только в EDT
+        refreshScheduler.schedule("candles", candleUpdateInterval, REFRESH_JITTER,
+            () -> onEventThread(this::updateCandleData));
         
         System.out.println("Мониторинг запущен, обновление каждые " + (updateInterval/1000) + " секунд");
     }
     
-    private void updatePriceData() {
+    /**
+     * Обновляет свечи вне очереди через планировщик, чтобы ручное переключение
+     * интервала не пересекалось с уже идущим плановым обновлением
+     */
+    private void refreshCandlesNow() {
+        if (refreshScheduler != null) {
+            refreshScheduler.triggerNow("candles");
+        } else {
+            updateCandleData();
+        }
+    }
+    
+    /**
+     * Выполняет запуск обновления в EDT; результат завершается вместе с самим обновлением,
+     * в том числе с его ошибкой
+     */
+    private static CompletableFuture<Void> onEventThread(Supplier<CompletableFuture<?>> action) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        SwingUtilities.invokeLater(() -> {
+            try {
+                action.get().whenComplete((result, error) -> {
+                    if (error != null) {
+                        done.completeExceptionally(error);
+                    } else {
+                        done.complete(null);
+                    }
+                });
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+    
+    private CompletableFuture<?> updatePriceData() {
         CompletableFuture<PriceData> future = apiService.getTokenPrice();
         
-        future.thenAccept(priceData -> {
+        return future.thenAccept(priceData -> {
             SwingUtilities.invokeLater(() -> {
-                boolean wasPump = false;
-                
-                // Проверяем памп с пользовательским порогом
-                if (currentPriceData != null && priceData.getPriceChangePercent24h() != null && 
-                    priceData.getPriceChangePercent24h().compareTo(pumpThreshold) > 0 && soundEnabled) {
-                    wasPump = true;
-                    soundService.playPumpAlert(customSoundFile); // Передаем кастомный файл
-                    
-                    if (trayIcon != null) {
-                        trayIcon.displayMessage("🚀 GOVNO PUMP!", 
-                            "Памп " + updateTrendDisplay(priceData) + "!", 
-                            TrayIcon.MessageType.WARNING);
-                    }
+                // Двигаем открытую свечу вслед за ценой, не дожидаясь обновления графика
+                if (priceData.getCurrentPriceFixed() != null) {
+                    chartPanel.updateLivePrice(priceData.getCurrentPriceFixed().doubleValue());
                 }
                 
                 currentPriceData = priceData;
+                
+                // Тик сохраняется в истории - по ней видно движение внутри свечи.
+                // Снимок с ошибкой API (цена 0) в историю не попадает
+                alertContext.update(System.currentTimeMillis(), priceData);
+                if (!priceData.isError() && alertContext.getPrice() > 0
+                    && tickHistory.append(alertContext.getTimeMillis(), alertContext.getPrice(), 
+                                          alertContext.getLiquidityUsd(), alertContext.getVolume24hUsd())) {
+                    chartPanel.ticksUpdated();
+                }
+                
+                // Проверяем все правила алертов за один проход; снимок с ошибкой API
+                // (временный сбой, 429) - не падение цены до нуля, правила его пропускают
+                pumpFired = false;
+                if (!priceData.isError()) {
+                    indicators.sync(candleHistory);
+                    alertContext.setCandles(candleHistory, indicators);
+                    alertContext.setTicks(tickHistory);
+                    alertEngine.evaluate(alertContext, alertListener);
+                }
+                boolean wasPump = pumpFired;
+                
                 updateUI(wasPump);
                 
                 if (!wasPump && soundEnabled) {
@@ -1291,16 +1261,101 @@ public class CryptoScreamerWidget extends JFrame {
         });
     }
     
-    private void updateCandleData() {
+    /**
+     * Сработавшее правило алерта: памп - звук, уведомление и мигание тренда,
+     * остальные - только уведомление
+     */
+    private void onAlert(AlertRule rule, AlertContext context) {
+        System.out.println("Алерт: " + rule.getName() + " (" + rule.getLastValue() + ")");
+        
+        if (rule.isPump()) {
+            pumpFired = true;
+            if (soundEnabled) {
+                soundService.playPumpAlert(customSoundFile); // Передаем кастомный файл
+            }
+        }
+        
+        if (trayIcon != null) {
+            if (rule == pumpRule) {
+                trayIcon.displayMessage("🚀 GOVNO PUMP!", 
+                    "Памп " + updateTrendDisplay(currentPriceData) + "!", 
+                    TrayIcon.MessageType.WARNING);
+            } else {
+                trayIcon.displayMessage((rule.isPump() ? "🚀 " : "📣 ") + rule.getName(), 
+                    rule.getName() + ": " + String.format("%.2f", rule.getLastValue()), 
+                    rule.isPump() ? TrayIcon.MessageType.WARNING : TrayIcon.MessageType.INFO);
+            }
+        }
+    }
+    
+    private CompletableFuture<?> updateCandleData() {
         // Используем выбранные пользователем настройки временного интервала
-        CompletableFuture<List<CandleData>> future = apiService.getCandleData(currentTimeframe, currentAggregate, currentLimit);
+        String timeframe = currentTimeframe;
+        int aggregate = currentAggregate;
+        int limit = currentLimit;
+        String key = timeframe + ":" + aggregate + ":" + limit;
+        
+        // После смены интервала или без данных загружаем ряд целиком
+        if (candleHistory.isEmpty() || !key.equals(loadedCandleKey)) {
+            return reloadCandleData(timeframe, aggregate, limit, key);
+        }
         
-        future.thenAccept(candles -> {
+        CompletableFuture<CandleSeries> future = apiService.getCandleSeriesSince(
+            timeframe, aggregate, candleHistory.getLastTime(), limit);
+        
+        return future.thenAccept(update -> {
             SwingUtilities.invokeLater(() -> {
-                candleHistory = candles;
+                // Ответ для старого интервала уже не нужен
+                if (!key.equals(loadedCandleKey)) return;
+                
+                if (!candleHistory.merge(update)) {
+                    System.out.println("Разрыв в свечах, загружаем график целиком");
+                    reloadCandleData(timeframe, aggregate, limit, key);
+                    return;
+                }
+                candleHistory.trimToLast(HISTORY_LIMIT);
+                chartPanel.repaint();
+                System.out.println("График дополнен: " + update.size() + " свечей (" + 
+                                 timeframe + ", " + aggregate + ", " + limit + ")");
+            });
+        }).exceptionally(throwable -> {
+            System.err.println("Ошибка обновления графика: " + throwable.getMessage());
+            return null;
+        });
+    }
+    
+    private CompletableFuture<?> reloadCandleData(String timeframe, int aggregate, int limit, String key) {
+        loadedCandleKey = key;
+        // Первый ответ (диск или API) заменяет ряд, второй объединяется с ним
+        AtomicBoolean replaced = new AtomicBoolean();
+        
+        // Сначала показываем глубокую историю с диска, пока API догружает хвост
+        apiService.getStoredCandleSeries(timeframe, aggregate, HISTORY_LIMIT).thenAccept(stored -> {
+            SwingUtilities.invokeLater(() -> {
+                if (!key.equals(loadedCandleKey) || stored.isEmpty()) return;
+                
+                // Ответ API мог прийти раньше - его свечи новее, история с диска встает перед ними
+                if (replaced.getAndSet(true) && !stored.merge(candleHistory)) return;
+                candleHistory = stored;
+                chartPanel.repaint();
+                System.out.println("График открыт из хранилища: " + stored.size() + " свечей");
+            });
+        });
+        
+        CompletableFuture<CandleSeries> future = apiService.getCandleSeries(timeframe, aggregate, limit);
+        
+        return future.thenAccept(candles -> {
+            SwingUtilities.invokeLater(() -> {
+                if (!key.equals(loadedCandleKey)) return;
+                
+                // История с диска уже показана - дополняем ее, при разрыве оставляем только ответ API
+                if (!replaced.getAndSet(true) || !candleHistory.merge(candles)) {
+                    candleHistory = candles;
+                }
+                candleHistory.trimToLast(HISTORY_LIMIT);
                 chartPanel.repaint();
                 System.out.println("График обновлен: " + candles.size() + " свечей (" + 
-                                 currentTimeframe + ", " + currentAggregate + ", " + currentLimit + ")");
+                                 timeframe + ", " + aggregate + ", " + limit + ")");
             });
         }).exceptionally(throwable -> {
             System.err.println("Ошибка обновления графика: " + throwable.getMessage());
@@ -1327,33 +1382,45 @@ public class CryptoScreamerWidget extends JFrame {
             symbolLabel.setText(symbol);
         }
         
-        priceLabel.setText(currentPriceData.getFormattedPrice());
+        // Текст собирается в переиспользуемый буфер, setText только при изменении
+        StringBuilder sb = labelTextBuffer;
+        sb.setLength(0);
+        currentPriceData.appendFormattedPrice(sb);
+        setTextIfChanged(priceLabel, sb);
         
         // Обновляем тренд с правильным отображением
-        String trendText = updateTrendDisplay(currentPriceData);
-        trendLabel.setText(trendText);
+        sb.setLength(0);
+        appendTrendDisplay(sb, currentPriceData);
+        setTextIfChanged(trendLabel, sb);
         
         // Обновляем ликвидность и объем
-        if (currentPriceData.getLiquidityUsd() != null) {
-            liquidityLabel.setText("Ликв: " + currentPriceData.getFormattedLiquidity());
+        sb.setLength(0);
+        sb.append("Ликв: ");
+        if (currentPriceData.getLiquidityUsdFixed() != null) {
+            currentPriceData.appendFormattedLiquidity(sb);
         } else {
-            liquidityLabel.setText("Ликв: —");
+            sb.append('—');
         }
+        setTextIfChanged(liquidityLabel, sb);
         
-        if (currentPriceData.getVolumeUsd24h() != null) {
-            volumeLabel.setText("Объем: " + currentPriceData.getFormattedVolume());
+        sb.setLength(0);
+        sb.append("Объем: ");
+        if (currentPriceData.getVolumeUsd24hFixed() != null) {
+            currentPriceData.appendFormattedVolume(sb);
         } else {
-            volumeLabel.setText("Объем: —");
+            sb.append('—');
         }
+        setTextIfChanged(volumeLabel, sb);
         
         // Цвета для тренда
-        if (currentPriceData.getPriceChangePercent24h() != null) {
-            if (currentPriceData.getPriceChangePercent24h().compareTo(BigDecimal.ZERO) > 0) {
+        FixedDecimal change = currentPriceData.getPriceChangePercent24hFixed();
+        if (change != null) {
+            if (change.signum() > 0) {
                 trendLabel.setForeground(getCurrentColorScheme().bullish);
                 if (isPump) {
                     startBlinkEffect();
                 }
-            } else if (currentPriceData.getPriceChangePercent24h().compareTo(BigDecimal.ZERO) < 0) {
+            } else if (change.signum() < 0) {
                 trendLabel.setForeground(getCurrentColorScheme().bearish);
             } else {
                 trendLabel.setForeground(getCurrentColorScheme().neutral);
@@ -1380,33 +1447,46 @@ public class CryptoScreamerWidget extends JFrame {
     }
     
     private String updateTrendDisplay(PriceData priceData) {
-        if (priceData == null || priceData.getPriceChangePercent24h() == null) {
+        return appendTrendDisplay(new StringBuilder(16), priceData).toString();
+    }
+    
+    private StringBuilder appendTrendDisplay(StringBuilder sb, PriceData priceData) {
+        if (priceData == null || priceData.getPriceChangePercent24hFixed() == null) {
             trendLabel.setIcon(null);
-            return "—";
+            return sb.append('—');
         }
         
-        BigDecimal change = priceData.getPriceChangePercent24h();
-        String percentText = change.setScale(2, BigDecimal.ROUND_HALF_UP).toString() + "%";
+        FixedDecimal change = priceData.getPriceChangePercent24hFixed();
         
-        if (change.compareTo(BigDecimal.ZERO) > 0) {
+        if (change.signum() > 0) {
             if (upArrowIcon != null) {
                 trendLabel.setIcon(upArrowIcon);
-                return "+" + percentText;
+                sb.append('+');
             } else {
                 trendLabel.setIcon(null);
-                return "↗ +" + percentText;
+                sb.append("↗ +");
             }
-        } else if (change.compareTo(BigDecimal.ZERO) < 0) {
+        } else if (change.signum() < 0) {
             if (downArrowIcon != null) {
                 trendLabel.setIcon(downArrowIcon);
-                return percentText;
             } else {
                 trendLabel.setIcon(null);
-                return "↘ " + percentText;
+                sb.append("↘ ");
             }
         } else {
             trendLabel.setIcon(null);
-            return "→ 0.00%";
+            return sb.append("→ 0.00%");
+        }
+        return change.appendTo(sb, 2).append('%');
+    }
+    
+    /**
+     * Обновляет текст метки, только если он изменился - без лишних String и revalidate
+     */
+    private static void setTextIfChanged(JLabel label, CharSequence text) {
+        String current = label.getText();
+        if (current == null || !current.contentEquals(text)) {
+            label.setText(text.toString());
         }
     }
     
@@ -1513,7 +1593,8 @@ public class CryptoScreamerWidget extends JFrame {
                 currentTimeframe = timeframe;
                 currentAggregate = aggregate;
                 currentLimit = limit;
-                updateCandleData();
+                chartPanel.resetView();
+                refreshCandlesNow();
                 
                 // Пересоздаем таймлайн с обновленными стилями
                 recreateTimelinePanel();
@@ -1558,14 +1639,14 @@ public class CryptoScreamerWidget extends JFrame {
     
     @Override
     public void dispose() {
-        if (updateTimer != null) {
-            updateTimer.stop();
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdown();
         }
         if (apiService != null) {
             apiService.close();
         }
         if (soundService != null) {
-            soundService.stopCurrentSound();
+            soundService.close();
         }
         if (systemTray != null && trayIcon != null) {
             systemTray.remove(trayIcon);
@@ -0,0 +1,103 @@
+package com.dayab.widget.alert;
+
+import com.dayab.widget.indicator.IndicatorEngine;
+import com.dayab.widget.model.CandleSeries;
+import com.dayab.widget.model.FixedDecimal;
+import com.dayab.widget.model.PriceData;
+import com.dayab.widget.model.TickHistory;
+
+/**
+ * Снимок рынка одного токена для проверки правил алертов
+ * Объект переиспользуется: каждый тик перезаписывает поля, ничего не выделяя.
+ * Отсутствующие значения - NaN, правила по ним не срабатывают.
+ */
+public final class AlertContext {
+
+    private long timeMillis;
+    private double price = Double.NaN;
+    private double change24hPercent = Double.NaN;
+    private double liquidityUsd = Double.NaN;
+    private double volume24hUsd = Double.NaN;
+
+    private CandleSeries candles;
+    private IndicatorEngine indicators;
+    private TickHistory ticks;
+
+    /**
+     * Переносит в снимок цену, изменение за 24ч, ликвидность и объем тика.
+     * Снимок с ошибкой API или неположительной ценой не несет данных - все поля NaN.
+     */
+    public void update(long timeMillis, PriceData priceData) {
+        this.timeMillis = timeMillis;
+        double price = toDouble(priceData.getCurrentPriceFixed());
+        if (priceData.isError() || !(price > 0)) {
+            this.price = Double.NaN;
+            this.change24hPercent = Double.NaN;
+            this.liquidityUsd = Double.NaN;
+            this.volume24hUsd = Double.NaN;
+            return;
+        }
+
+        this.price = price;
+        this.change24hPercent = toDouble(priceData.getPriceChangePercent24hFixed());
+        this.liquidityUsd = toDouble(priceData.getLiquidityUsdFixed());
+        this.volume24hUsd = toDouble(priceData.getVolumeUsd24hFixed());
+    }
+
+    /**
+     * Свечи и индикаторы для правил по истории; индикаторы должны быть синхронизированы со свечами
+     */
+    public void setCandles(CandleSeries candles, IndicatorEngine indicators) {
+        this.candles = candles;
+        this.indicators = indicators;
+    }
+
+    /**
+     * Тики цены для правил по движению внутри свечи
+     */
+    public void setTicks(TickHistory ticks) {
+        this.ticks = ticks;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getChange24hPercent() {
+        return change24hPercent;
+    }
+
+    public double getLiquidityUsd() {
+        return liquidityUsd;
+    }
+
+    public double getVolume24hUsd() {
+        return volume24hUsd;
+    }
+
+    /**
+     * Свечи токена; null, если правила по истории не проверяются
+     */
+    public CandleSeries getCandles() {
+        return candles;
+    }
+
+    public IndicatorEngine getIndicators() {
+        return indicators;
+    }
+
+    /**
+     * Тики цены; null, если правила по тикам не проверяются
+     */
+    public TickHistory getTicks() {
+        return ticks;
+    }
+
+    private static double toDouble(FixedDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dayab.widget.alert;
+
+import java.util.Arrays;
+
+/**
+ * Набор правил алертов одного токена
+ * Все правила проверяются за один проход по массиву без выделения памяти:
+ * снимок переиспользуется, сработавшие правила передаются слушателю.
+ * Не потокобезопасен: вызывается из одного потока (в виджете - из потока Swing).
+ */
+public final class AlertEngine {
+
+    /**
+     * Получает сработавшие правила
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onAlert(AlertRule rule, AlertContext context);
+    }
+
+    private AlertRule[] rules = new AlertRule[8];
+    private int size;
+
+    public void add(AlertRule rule) {
+        if (size == rules.length) {
+            rules = Arrays.copyOf(rules, size * 2);
+        }
+        rules[size++] = rule;
+    }
+
+    public boolean remove(AlertRule rule) {
+        for (int i = 0; i < size; i++) {
+            if (rules[i] == rule) {
+                System.arraycopy(rules, i + 1, rules, i, size - i - 1);
+                rules[--size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public AlertRule get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("rule " + index + " of " + size);
+        }
+        return rules[index];
+    }
+
+    /**
+     * Проверяет все правила на снимке
+     *
+     * @return число сработавших правил
+     */
+    public int evaluate(AlertContext context, Listener listener) {
+        int fired = 0;
+        for (int i = 0; i < size; i++) {
+            AlertRule rule = rules[i];
+            if (rule.evaluate(context)) {
+                fired++;
+                listener.onAlert(rule, context);
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Взводит все правила заново (например, после смены токена)
+     */
+    public void reset() {
+        for (int i = 0; i < size; i++) {
+            rules[i].reset();
+        }
+    }
+}
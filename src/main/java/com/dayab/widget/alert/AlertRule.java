@@ -0,0 +1,131 @@
+package com.dayab.widget.alert;
+
+/**
+ * Правило алерта: измеряемая величина и уровни срабатывания
+ * Срабатывание по фронту: правило срабатывает, когда величина переходит за уровень
+ * срабатывания, и снова взводится только после возврата за уровень сброса (гистерезис).
+ * Пока условие держится, повторных срабатываний нет. Кулдаун - минимальный интервал
+ * между срабатываниями, даже если условие успело сброситься и вернуться.
+ */
+public abstract class AlertRule {
+
+    /**
+     * Направление: величина выше уровня или ниже
+     */
+    public enum Direction {
+        ABOVE, BELOW
+    }
+
+    private final String name;
+    private final Direction direction;
+    private final long cooldownMillis;
+    private double triggerLevel;
+    private double resetLevel;
+    private boolean pump;
+
+    // Состояние срабатывания
+    private boolean active;
+    private boolean fired;
+    private long lastFiredMillis;
+    private double lastValue = Double.NaN;
+
+    protected AlertRule(String name, Direction direction, double triggerLevel, double resetLevel,
+                        long cooldownMillis) {
+        this.name = name;
+        this.direction = direction;
+        this.cooldownMillis = cooldownMillis;
+        setLevels(triggerLevel, resetLevel);
+    }
+
+    /**
+     * Текущее значение величины; NaN, если данных недостаточно.
+     * Вызывается ровно один раз на проверку и не должен выделять память.
+     */
+    protected abstract double measure(AlertContext context);
+
+    /**
+     * Проверяет правило на снимке
+     *
+     * @return true если правило сработало на этом снимке
+     */
+    final boolean evaluate(AlertContext context) {
+        double value = measure(context);
+        lastValue = value;
+        if (Double.isNaN(value)) return false;
+
+        if (active) {
+            if (direction == Direction.ABOVE ? value <= resetLevel : value >= resetLevel) {
+                active = false;
+            }
+            return false;
+        }
+
+        if (direction == Direction.ABOVE ? value <= triggerLevel : value >= triggerLevel) {
+            return false;
+        }
+        active = true;
+
+        long now = context.getTimeMillis();
+        if (fired && now - lastFiredMillis < cooldownMillis) {
+            return false;
+        }
+        fired = true;
+        lastFiredMillis = now;
+        return true;
+    }
+
+    /**
+     * Меняет уровни; уровень сброса должен быть не дальше уровня срабатывания
+     */
+    public void setLevels(double triggerLevel, double resetLevel) {
+        if (direction == Direction.ABOVE ? resetLevel > triggerLevel : resetLevel < triggerLevel) {
+            throw new IllegalArgumentException("Уровень сброса " + resetLevel + " за уровнем срабатывания "
+                                               + triggerLevel + " (" + name + ")");
+        }
+        this.triggerLevel = triggerLevel;
+        this.resetLevel = resetLevel;
+    }
+
+    /**
+     * Помечает правило как памп - виджет отвечает на него звуком и миганием
+     */
+    public AlertRule asPump() {
+        this.pump = true;
+        return this;
+    }
+
+    /**
+     * Сбрасывает состояние: правило снова взведено, кулдаун не действует
+     */
+    public void reset() {
+        active = false;
+        fired = false;
+        lastValue = Double.NaN;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isPump() {
+        return pump;
+    }
+
+    /**
+     * Условие сейчас выполняется (правило сработало и еще не сброшено)
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Значение величины на последней проверке
+     */
+    public double getLastValue() {
+        return lastValue;
+    }
+
+    public double getTriggerLevel() {
+        return triggerLevel;
+    }
+}
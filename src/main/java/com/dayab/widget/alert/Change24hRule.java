@@ -0,0 +1,17 @@
+package com.dayab.widget.alert;
+
+/**
+ * Изменение цены за 24 часа по данным API, в процентах
+ */
+public final class Change24hRule extends AlertRule {
+
+    public Change24hRule(String name, Direction direction, double triggerPercent, double resetPercent,
+                         long cooldownMillis) {
+        super(name, direction, triggerPercent, resetPercent, cooldownMillis);
+    }
+
+    @Override
+    protected double measure(AlertContext context) {
+        return context.getChange24hPercent();
+    }
+}
@@ -0,0 +1,41 @@
+package com.dayab.widget.alert;
+
+import com.dayab.widget.indicator.IndicatorEngine;
+
+/**
+ * Пересечение индикатора на последней свече
+ * Уровень - само значение индикатора (например, RSI выше 70) или отклонение
+ * цены от линии индикатора в процентах (цена выше EMA - уровень 0).
+ */
+public final class IndicatorRule extends AlertRule {
+
+    private final int indicator;
+    private final int line;
+    private final boolean againstPrice;
+
+    /**
+     * @param indicator номер индикатора в IndicatorEngine снимка
+     * @param againstPrice true - величина (цена - линия) / линия * 100, false - значение линии
+     */
+    public IndicatorRule(String name, int indicator, int line, boolean againstPrice, Direction direction,
+                         double triggerLevel, double resetLevel, long cooldownMillis) {
+        super(name, direction, triggerLevel, resetLevel, cooldownMillis);
+        this.indicator = indicator;
+        this.line = line;
+        this.againstPrice = againstPrice;
+    }
+
+    @Override
+    protected double measure(AlertContext context) {
+        IndicatorEngine indicators = context.getIndicators();
+        if (indicators == null || indicators.size() == 0) {
+            return Double.NaN;
+        }
+
+        double value = indicators.getLastValue(indicator, line);
+        if (!againstPrice) return value;
+
+        double price = context.getPrice();
+        return value > 0 ? (price - value) / value * 100 : Double.NaN;
+    }
+}
@@ -0,0 +1,44 @@
+package com.dayab.widget.alert;
+
+/**
+ * Падение ликвидности от максимума за последние windowSamples проверок, в процентах
+ * Значения хранятся в кольцевом буфере правила; каждая проверка добавляет одно.
+ */
+public final class LiquidityDropRule extends AlertRule {
+
+    private final double[] samples;
+    private int head;
+    private int count;
+
+    public LiquidityDropRule(String name, int windowSamples, double triggerPercent, double resetPercent,
+                             long cooldownMillis) {
+        super(name, Direction.ABOVE, triggerPercent, resetPercent, cooldownMillis);
+        if (windowSamples < 2) {
+            throw new IllegalArgumentException("Окно должно быть не меньше двух значений: " + windowSamples);
+        }
+        this.samples = new double[windowSamples];
+    }
+
+    @Override
+    protected double measure(AlertContext context) {
+        double liquidity = context.getLiquidityUsd();
+        if (Double.isNaN(liquidity)) return Double.NaN;
+
+        samples[head] = liquidity;
+        head = (head + 1) % samples.length;
+        if (count < samples.length) count++;
+
+        double max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max > 0 ? (max - liquidity) / max * 100 : Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        head = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dayab.widget.alert;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Движение цены за скользящее окно из последних свечей, в процентах:
+ * от закрытия свечи windowCandles назад до текущей цены
+ */
+public final class PriceMoveRule extends AlertRule {
+
+    private final int windowCandles;
+
+    public PriceMoveRule(String name, int windowCandles, Direction direction, double triggerPercent,
+                         double resetPercent, long cooldownMillis) {
+        super(name, direction, triggerPercent, resetPercent, cooldownMillis);
+        if (windowCandles < 1) {
+            throw new IllegalArgumentException("Окно должно быть не меньше одной свечи: " + windowCandles);
+        }
+        this.windowCandles = windowCandles;
+    }
+
+    @Override
+    protected double measure(AlertContext context) {
+        CandleSeries candles = context.getCandles();
+        double price = context.getPrice();
+        if (candles == null || candles.size() <= windowCandles || Double.isNaN(price)) {
+            return Double.NaN;
+        }
+
+        double base = candles.getClose(candles.size() - 1 - windowCandles);
+        return base > 0 ? (price - base) / base * 100 : Double.NaN;
+    }
+}
@@ -0,0 +1,21 @@
+package com.dayab.widget.alert;
+
+import com.dayab.widget.model.TickHistory;
+
+/**
+ * Движение цены по тикам за окно TickHistory, в процентах
+ * В отличие от PriceMoveRule видит движение внутри еще не обновленной свечи.
+ */
+public final class TickMoveRule extends AlertRule {
+
+    public TickMoveRule(String name, Direction direction, double triggerPercent, double resetPercent,
+                        long cooldownMillis) {
+        super(name, direction, triggerPercent, resetPercent, cooldownMillis);
+    }
+
+    @Override
+    protected double measure(AlertContext context) {
+        TickHistory ticks = context.getTicks();
+        return ticks != null ? ticks.getWindowDeltaPercent() : Double.NaN;
+    }
+}
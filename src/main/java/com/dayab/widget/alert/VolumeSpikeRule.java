@@ -0,0 +1,37 @@
+package com.dayab.widget.alert;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Всплеск объема: объем последней свечи, деленный на средний объем
+ * windowCandles предыдущих свечей (во сколько раз больше обычного)
+ */
+public final class VolumeSpikeRule extends AlertRule {
+
+    private final int windowCandles;
+
+    public VolumeSpikeRule(String name, int windowCandles, double triggerRatio, double resetRatio,
+                           long cooldownMillis) {
+        super(name, Direction.ABOVE, triggerRatio, resetRatio, cooldownMillis);
+        if (windowCandles < 1) {
+            throw new IllegalArgumentException("Окно должно быть не меньше одной свечи: " + windowCandles);
+        }
+        this.windowCandles = windowCandles;
+    }
+
+    @Override
+    protected double measure(AlertContext context) {
+        CandleSeries candles = context.getCandles();
+        if (candles == null || candles.size() <= windowCandles) {
+            return Double.NaN;
+        }
+
+        int last = candles.size() - 1;
+        double sum = 0;
+        for (int i = last - windowCandles; i < last; i++) {
+            sum += candles.getVolume(i);
+        }
+        double mean = sum / windowCandles;
+        return mean > 0 ? candles.getVolume(last) / mean : Double.NaN;
+    }
+}
@@ -0,0 +1,144 @@
+package com.dayab.widget.chart;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Прореживание длинного ряда свечей до ширины графика
+ * Для свечей соседние свечи сливаются в одну на колонку пикселей (open первой,
+ * close последней, минимум и максимум по колонке). Для линии точки выбираются
+ * алгоритмом Largest-Triangle-Three-Buckets, сохраняющим форму графика.
+ * Результат кэшируется, пока не изменились исходный ряд, режим или число точек.
+ */
+public final class CandleDownsampler {
+
+    private final CandleSeries output = new CandleSeries();
+
+    private CandleSeries source;
+    private int sourceModCount;
+    private int from;
+    private int to;
+    private ChartProjection.Mode mode;
+    private int maxPoints;
+    private boolean valid;
+
+    /**
+     * Возвращает свечи [from, to) не длиннее maxPoints: сам source, если диапазон
+     * и так короче (рисовать его от from до to), иначе прореженную копию всего
+     * диапазона (от 0 до size()), которая переиспользуется между вызовами
+     */
+    public CandleSeries downsample(CandleSeries source, int from, int to, ChartProjection.Mode mode, int maxPoints) {
+        if (to - from <= maxPoints || maxPoints < 3) {
+            return source;
+        }
+
+        if (!valid || this.source != source || sourceModCount != source.getModCount()
+            || this.from != from || this.to != to || this.mode != mode || this.maxPoints != maxPoints) {
+            if (mode == ChartProjection.Mode.CANDLES) {
+                minMaxBuckets(source, from, to, maxPoints, output);
+            } else {
+                largestTriangleThreeBuckets(source, from, to, maxPoints, output);
+            }
+            this.source = source;
+            this.sourceModCount = source.getModCount();
+            this.from = from;
+            this.to = to;
+            this.mode = mode;
+            this.maxPoints = maxPoints;
+            this.valid = true;
+        }
+        return output;
+    }
+
+    /**
+     * Сливает свечи [from, to) в buckets равных по числу свечей групп.
+     * Время и open берутся у первой свечи группы, close - у последней,
+     * high и low - экстремумы группы, объем суммируется.
+     */
+    public static void minMaxBuckets(CandleSeries source, int from, int to, int buckets, CandleSeries target) {
+        target.clear();
+        int size = to - from;
+        if (size <= 0 || buckets <= 0) return;
+        buckets = Math.min(buckets, size);
+
+        for (int b = 0; b < buckets; b++) {
+            int first = from + (int) ((long) b * size / buckets);
+            int end = from + (int) ((long) (b + 1) * size / buckets);
+
+            double high = source.getHigh(first);
+            double low = source.getLow(first);
+            double volume = 0;
+            for (int i = first; i < end; i++) {
+                high = Math.max(high, source.getHigh(i));
+                low = Math.min(low, source.getLow(i));
+                volume += source.getVolume(i);
+            }
+
+            target.append(source.getTime(first), source.getOpen(first), high, low,
+                          source.getClose(end - 1), volume);
+        }
+    }
+
+    /**
+     * Выбирает из [from, to) threshold свечей алгоритмом LTTB по ценам закрытия.
+     * Первая и последняя свечи сохраняются всегда; в каждой группе между ними
+     * берется свеча, образующая наибольший треугольник с предыдущей выбранной
+     * и средней точкой следующей группы. По оси X - номер свечи, как на графике.
+     */
+    public static void largestTriangleThreeBuckets(CandleSeries source, int from, int to, int threshold,
+                                                   CandleSeries target) {
+        target.clear();
+        int size = to - from;
+        if (threshold >= size || threshold < 3) {
+            for (int i = from; i < to; i++) {
+                copyCandle(source, i, target);
+            }
+            return;
+        }
+
+        double every = (double) (size - 2) / (threshold - 2);
+        int selected = 0;
+        copyCandle(source, from, target);
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Средняя точка следующей группы
+            int avgFrom = (int) Math.floor((bucket + 1) * every) + 1;
+            int avgTo = Math.min((int) Math.floor((bucket + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = avgFrom; i < avgTo; i++) {
+                avgX += i;
+                avgY += source.getClose(from + i);
+            }
+            int avgCount = avgTo - avgFrom;
+            avgX /= avgCount;
+            avgY /= avgCount;
+
+            // Свеча текущей группы с наибольшей площадью треугольника
+            int rangeFrom = (int) Math.floor(bucket * every) + 1;
+            int rangeTo = (int) Math.floor((bucket + 1) * every) + 1;
+            double pointX = selected;
+            double pointY = source.getClose(from + selected);
+
+            double maxArea = -1;
+            int next = rangeFrom;
+            for (int i = rangeFrom; i < rangeTo; i++) {
+                double area = Math.abs((pointX - avgX) * (source.getClose(from + i) - pointY)
+                                     - (pointX - i) * (avgY - pointY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = i;
+                }
+            }
+
+            copyCandle(source, from + next, target);
+            selected = next;
+        }
+
+        copyCandle(source, to - 1, target);
+    }
+
+    private static void copyCandle(CandleSeries source, int index, CandleSeries target) {
+        target.append(source.getTime(index), source.getOpen(index), source.getHigh(index),
+                      source.getLow(index), source.getClose(index), source.getVolume(index));
+    }
+}
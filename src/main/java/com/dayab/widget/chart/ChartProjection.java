@@ -0,0 +1,228 @@
+package com.dayab.widget.chart;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Экранная проекция диапазона свечей
+ * Переводит OHLC значения в координаты пикселей один раз на изменение данных,
+ * видимого диапазона или размеров области, после чего отрисовка любого типа
+ * графика - это только чтение int массивов. Пока ничего не меняется, update() ничего не делает.
+ * Индексы проекции идут от 0; свеча ряда - getFirstIndex() + i.
+ */
+public final class ChartProjection {
+
+    /**
+     * Режим раскладки: свечи занимают ширину с промежутками и масштабируются
+     * по минимумам и максимумам, линия - точки по краям и масштаб по закрытиям
+     */
+    public enum Mode {
+        CANDLES, LINE
+    }
+
+    private int[] xs = new int[0];
+    private int[] highYs = new int[0];
+    private int[] lowYs = new int[0];
+    private int[] openYs = new int[0];
+    private int[] closeYs = new int[0];
+    private int count;
+    private int from;
+
+    private Mode mode;
+    private int left;
+    private int top;
+    private int chartWidth;
+    private int chartHeight;
+    private int step;
+    private int candleWidth;
+    private double minPrice;
+    private double maxPrice;
+    private double priceRange;
+
+    // Ключ актуальности: ряд и его счетчик изменений
+    private CandleSeries series;
+    private int seriesModCount;
+    private boolean valid;
+
+    /**
+     * Пересчитывает проекцию свечей [from, to), если изменились данные, диапазон,
+     * режим, размеры области графика или диапазон цен
+     *
+     * @param minPrice нижняя граница цены (для линии - минимум закрытий)
+     * @param maxPrice верхняя граница цены (для линии - максимум закрытий)
+     * @return true если проекция была пересчитана
+     */
+    public boolean update(CandleSeries series, int from, int to, Mode mode, int left, int top,
+                          int chartWidth, int chartHeight, double minPrice, double maxPrice) {
+        if (valid && this.series == series && seriesModCount == series.getModCount() && this.mode == mode
+            && this.from == from && count == to - from
+            && this.left == left && this.top == top && this.chartWidth == chartWidth && this.chartHeight == chartHeight
+            && this.minPrice == minPrice && this.maxPrice == maxPrice) {
+            return false;
+        }
+
+        this.series = series;
+        this.seriesModCount = series.getModCount();
+        this.mode = mode;
+        this.from = from;
+        this.left = left;
+        this.top = top;
+        this.chartWidth = chartWidth;
+        this.chartHeight = chartHeight;
+        this.count = to - from;
+        ensureCapacity(count);
+
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.priceRange = maxPrice - minPrice;
+        if (priceRange == 0) {
+            priceRange = maxPrice * 0.01;
+        }
+
+        if (count == 0) {
+            step = 0;
+            candleWidth = 0;
+        } else if (mode == Mode.CANDLES) {
+            candleWidth = Math.max(1, chartWidth / count);
+            step = candleWidth + Math.max(0, candleWidth / 4);
+        } else {
+            candleWidth = 0;
+            step = Math.max(1, chartWidth / Math.max(1, count - 1));
+        }
+
+        for (int i = 0; i < count; i++) {
+            projectCandle(i);
+        }
+        valid = true;
+        return true;
+    }
+
+    /**
+     * Пересчитывает только последнюю свечу при прежнем диапазоне цен.
+     * Вызывающий отвечает за то, что изменение свечи не вышло за диапазон.
+     */
+    public void reprojectLast() {
+        if (!valid || count == 0 || series.size() < from + count) {
+            valid = false;
+            return;
+        }
+        projectCandle(count - 1);
+        seriesModCount = series.getModCount();
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Переводит цену в координату Y по текущему диапазону
+     */
+    public int projectY(double price) {
+        return top + (int) (((maxPrice - price) / priceRange) * chartHeight);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Ряд, по которому построена проекция
+     */
+    public CandleSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * Индекс в ряду, соответствующий точке 0 проекции
+     */
+    public int getFirstIndex() {
+        return from;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getHighY(int index) {
+        return highYs[index];
+    }
+
+    public int getLowY(int index) {
+        return lowYs[index];
+    }
+
+    public int getOpenY(int index) {
+        return openYs[index];
+    }
+
+    public int getCloseY(int index) {
+        return closeYs[index];
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getChartWidth() {
+        return chartWidth;
+    }
+
+    public int getChartHeight() {
+        return chartHeight;
+    }
+
+    /**
+     * Шаг между соседними свечами (точками линии) в пикселях
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Ширина тела свечи; для линии 0
+     */
+    public int getCandleWidth() {
+        return candleWidth;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public double getPriceRange() {
+        return priceRange;
+    }
+
+    private void projectCandle(int i) {
+        int index = from + i;
+        xs[i] = left + i * step;
+        highYs[i] = projectY(series.getHigh(index));
+        lowYs[i] = projectY(series.getLow(index));
+        openYs[i] = projectY(series.getOpen(index));
+        closeYs[i] = projectY(series.getClose(index));
+    }
+
+    private void ensureCapacity(int required) {
+        if (xs.length >= required) return;
+        xs = new int[required];
+        highYs = new int[required];
+        lowYs = new int[required];
+        openYs = new int[required];
+        closeYs = new int[required];
+    }
+}
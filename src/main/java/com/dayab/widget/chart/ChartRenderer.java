@@ -0,0 +1,665 @@
+package com.dayab.widget.chart;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import com.dayab.widget.indicator.IndicatorEngine;
+import com.dayab.widget.indicator.StreamingIndicator;
+import com.dayab.widget.model.CandleSeries;
+import com.dayab.widget.model.TickHistory;
+
+/**
+ * Отрисовка графика (свечи или линия) в стиле GeckoTerminal в любой Graphics2D
+ * Не зависит от Swing-компонента: рисует и в панель виджета, и в BufferedImage
+ * при java.awt.headless=true. Проекция, индекс диапазона цен, прореживание,
+ * слой сетки и подписи кэшируются между кадрами - один экземпляр на одну область.
+ * Не потокобезопасен: вызывается из одного потока отрисовки.
+ */
+public final class ChartRenderer {
+
+    public static final int LEFT_PADDING = 45; // Левый отступ для ценовой шкалы
+    public static final int RIGHT_PADDING = 8;
+    public static final int TOP_PADDING = 8;
+    public static final int BOTTOM_PADDING = 25; // Нижний отступ для временных меток
+    public static final int SPARKLINE_WIDTH = 60; // Спарклайн тиков в правом верхнем углу
+    public static final int SPARKLINE_HEIGHT = 16;
+
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    // Экранная проекция ряда, общая для свечей и линии
+    private final ChartProjection projection = new ChartProjection();
+    // Прореживание длинных рядов до ширины графика
+    private final CandleDownsampler downsampler = new CandleDownsampler();
+    // Минимум и максимум цены видимой части без прохода по ряду
+    private final RangeMinMaxIndex rangeIndex = new RangeMinMaxIndex();
+
+    // Параметры текущего кадра
+    private int width;
+    private int height;
+    private RenderResources resources;
+
+    // Видимая часть исходного ряда (до прореживания) - по ней читаются значения индикаторов
+    private int sourceFrom;
+    private int sourceCount;
+
+    // Тренд линии на последней отрисовке - от него зависит цвет
+    private boolean lineUptrend;
+
+    // Переиспользуемые объекты кадра: отсечение и путь заливки под линией
+    private final Rectangle clipBounds = new Rectangle();
+    private final Path2D.Float linePath = new Path2D.Float();
+
+    // Подписи пересоздаются только при смене значения, а не на каждый кадр
+    private double athLabelPrice = Double.NaN;
+    private String athLabel;
+    private final long[] timeLabelTimes = {Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+    private final String[] timeLabels = new String[3];
+    private final int[] timeLabelWidths = new int[3];
+    private double[] oscillatorLabelValues = new double[0];
+    private String[] oscillatorLabels = new String[0];
+
+    // Кэш статического слоя: сетка и ценовая шкала
+    private BufferedImage gridLayer;
+    private int gridLayerWidth;
+    private int gridLayerHeight;
+    private double gridLayerScaleX;
+    private double gridLayerScaleY;
+    private RenderResources gridLayerResources;
+    private double gridLayerMinPrice;
+    private double gridLayerMaxPrice;
+
+    /**
+     * Рисует свечи [from, to) ряда в область width x height
+     *
+     * @param to не меньше from + 2
+     */
+    public void render(Graphics2D g2d, int width, int height, CandleSeries series, int from, int to,
+                       ChartProjection.Mode mode, RenderResources resources) {
+        this.width = width;
+        this.height = height;
+        this.resources = resources;
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+        // Проекция пересчитывается только при изменении данных, видимой части или размеров
+        updateProjection(series, from, to, mode);
+
+        if (mode == ChartProjection.Mode.CANDLES) {
+            drawCandlestickChart(g2d);
+        } else {
+            drawLineChart(g2d);
+        }
+    }
+
+    /**
+     * Рисует видимые индикаторы поверх последней отрисовки: ценовые - линиями
+     * в масштабе графика, осцилляторы - значением на последней видимой свече в легенде.
+     * Значения индикаторов должны быть синхронизированы с рядом этой отрисовки.
+     */
+    public void renderIndicators(Graphics2D g2d, IndicatorEngine indicators) {
+        if (projection.getCount() < 2 || indicators.size() < sourceFrom + sourceCount) return;
+
+        g2d.setFont(resources.athFont);
+        FontMetrics metrics = g2d.getFontMetrics();
+        int legendX = LEFT_PADDING + 4;
+        int legendY = TOP_PADDING + 10;
+
+        for (int k = 0; k < indicators.getIndicatorCount(); k++) {
+            if (!indicators.isVisible(k)) continue;
+            StreamingIndicator indicator = indicators.getIndicator(k);
+            Color color = resources.indicatorColor(k);
+
+            String label;
+            if (indicator.isOverlay()) {
+                // Первая линия - основная, остальные (полосы) - тонким пунктиром
+                for (int line = 0; line < indicator.getLineCount(); line++) {
+                    g2d.setStroke(line == 0 ? resources.indicatorStroke : resources.bandStroke);
+                    drawIndicatorLine(g2d, indicators, k, line, color);
+                }
+                label = indicator.getName();
+            } else {
+                label = oscillatorLabel(indicators, k);
+            }
+
+            g2d.setColor(color);
+            g2d.drawString(label, legendX, legendY);
+            legendX += metrics.stringWidth(label) + 8;
+        }
+    }
+
+    /**
+     * Рисует спарклайн тиков окна TickHistory в правом верхнем углу последней отрисовки.
+     * По X - время тика, по Y - цена между минимумом и максимумом окна.
+     */
+    public void renderSparkline(Graphics2D g2d, TickHistory ticks) {
+        int start = ticks.getWindowStartIndex();
+        int end = ticks.size();
+        if (end - start < 2) return;
+
+        int left = width - RIGHT_PADDING - SPARKLINE_WIDTH;
+        int top = TOP_PADDING;
+        long firstTime = ticks.getTime(start);
+        long timeRange = Math.max(1, ticks.getTime(end - 1) - firstTime);
+        double min = ticks.getWindowMinPrice();
+        double range = ticks.getWindowMaxPrice() - min;
+
+        g2d.setColor(resources.trendColor(ticks.getWindowDelta() >= 0));
+        g2d.setStroke(resources.indicatorStroke);
+
+        int prevX = 0;
+        int prevY = 0;
+        for (int i = start; i < end; i++) {
+            int x = left + (int) ((ticks.getTime(i) - firstTime) * SPARKLINE_WIDTH / timeRange);
+            int y = range > 0
+                ? top + (int) ((ticks.getWindowMaxPrice() - ticks.getPrice(i)) / range * SPARKLINE_HEIGHT)
+                : top + SPARKLINE_HEIGHT / 2;
+            if (i > start) {
+                g2d.drawLine(prevX, prevY, x, y);
+            }
+            prevX = x;
+            prevY = y;
+        }
+    }
+
+    /**
+     * Записывает в bounds область спарклайна для графика шириной width
+     */
+    public static void sparklineBounds(int width, Rectangle bounds) {
+        int margin = 2;
+        bounds.setBounds(width - RIGHT_PADDING - SPARKLINE_WIDTH - margin, TOP_PADDING - margin,
+                         SPARKLINE_WIDTH + 2 * margin, SPARKLINE_HEIGHT + 2 * margin);
+    }
+
+    /**
+     * Проекция последней отрисовки - для пересчета координат мыши в свечи
+     */
+    public ChartProjection getProjection() {
+        return projection;
+    }
+
+    public void invalidate() {
+        projection.invalidate();
+    }
+
+    /**
+     * Сообщает об изменении свечи index через series.set(), чтобы не перестраивать индекс цен
+     */
+    public void candleUpdated(int index) {
+        rangeIndex.update(index);
+    }
+
+    /**
+     * Пересчитывает координаты последней свечи при прежнем диапазоне цен
+     */
+    public void reprojectLast() {
+        projection.reprojectLast();
+    }
+
+    /**
+     * Проверяет, что после обновления открытой свечи раскладка графика осталась прежней
+     */
+    public boolean isLayoutUnchanged(double oldClose, double close, double high, double low) {
+        if (projection.getMode() == ChartProjection.Mode.CANDLES) {
+            return low >= projection.getMinPrice() && high <= projection.getMaxPrice();
+        }
+        // Линия строится по закрытиям: диапазон мог и сузиться, если старое закрытие было крайним.
+        // Цвет линии зависит от тренда первой и последней точки.
+        return oldClose > projection.getMinPrice() && oldClose < projection.getMaxPrice()
+            && close >= projection.getMinPrice() && close <= projection.getMaxPrice()
+            && (close > projection.getSeries().getClose(projection.getFirstIndex())) == lineUptrend;
+    }
+
+    /**
+     * Записывает в bounds экранную область открытой (последней) свечи series по проекции последней отрисовки
+     *
+     * @return false если область по проекции не определить
+     */
+    public boolean liveCandleBounds(CandleSeries series, ChartProjection.Mode mode, Rectangle bounds) {
+        // Проекция должна заканчиваться открытой свечой исходного ряда. У прореженного ряда
+        // последняя точка собрана из нескольких свечей - его перерисовываем целиком.
+        if (!projection.isValid() || projection.getMode() != mode || projection.getSeries() != series
+            || projection.getFirstIndex() + projection.getCount() != series.size()) {
+            return false;
+        }
+        int last = projection.getCount() - 1;
+        int lastCandle = series.size() - 1;
+
+        if (mode == ChartProjection.Mode.CANDLES) {
+            int x = projection.getX(last);
+            int highY = projection.projectY(series.getHigh(lastCandle));
+            int lowY = projection.projectY(series.getLow(lastCandle));
+            bounds.setBounds(x - 1, highY - 1, projection.getCandleWidth() + 3, lowY - highY + 3);
+            return true;
+        }
+
+        // Последний отрезок линии, точка на конце и заливка под ним до низа графика
+        int x1 = projection.getX(last - 1);
+        int x2 = projection.getX(last);
+        int margin = 6;
+        bounds.setBounds(x1 - margin, projection.getTop() - margin, x2 - x1 + 2 * margin,
+                         projection.getChartHeight() + 2 * margin);
+        return true;
+    }
+
+    /**
+     * Пересчитывает проекцию видимой части истории. Диапазон цен берется из индекса
+     * за O(log N), ряд длиннее ширины графика прореживается до точки на пиксель.
+     */
+    private void updateProjection(CandleSeries source, int from, int to, ChartProjection.Mode mode) {
+        int chartWidth = width - LEFT_PADDING - RIGHT_PADDING;
+        int chartHeight = height - TOP_PADDING - BOTTOM_PADDING;
+
+        sourceFrom = from;
+        sourceCount = to - from;
+
+        rangeIndex.sync(source, mode);
+        double minPrice = rangeIndex.min(from, to);
+        double maxPrice = rangeIndex.max(from, to);
+
+        CandleSeries series = downsampler.downsample(source, from, to, mode, chartWidth);
+        if (series != source) {
+            from = 0;
+            to = series.size();
+        }
+        projection.update(series, from, to, mode, LEFT_PADDING, TOP_PADDING, chartWidth, chartHeight,
+                          minPrice, maxPrice);
+    }
+
+    private void drawLineChart(Graphics2D g2d) {
+        CandleSeries series = projection.getSeries();
+        int first = projection.getFirstIndex();
+        int count = projection.getCount();
+        int chartWidth = projection.getChartWidth();
+
+        // Мин, макс и ATH цены
+        double minPrice = projection.getMinPrice();
+        double maxPrice = projection.getMaxPrice();
+        double athPrice = maxPrice; // ATH это максимальная цена за период
+
+        // Рисуем ценовую шкалу слева
+        drawGridLayer(g2d, minPrice, maxPrice);
+
+        // Рисуем центральную ATH линию (как в DYOR.io)
+        int athY = projection.projectY(athPrice);
+        g2d.setColor(resources.gridMain);
+        g2d.setStroke(resources.athStroke);
+        g2d.drawLine(LEFT_PADDING, athY, LEFT_PADDING + chartWidth, athY);
+
+        // Подпись ATH
+        g2d.setFont(resources.athFont);
+        g2d.setColor(resources.primaryText);
+        if (athPrice != athLabelPrice) {
+            athLabel = "ATH $" + BigDecimal.valueOf(athPrice).setScale(2, RoundingMode.HALF_UP).toPlainString();
+            athLabelPrice = athPrice;
+        }
+        g2d.drawString(athLabel, LEFT_PADDING + 5, athY - 5);
+
+        // Определяем цвет линии на основе общего тренда
+        double firstPrice = series.getClose(first);
+        double lastPrice = series.getClose(first + count - 1);
+        boolean isUptrend = lastPrice > firstPrice;
+        lineUptrend = isUptrend;
+
+        // Зеленый для роста, красный для падения
+        Color lineColor = resources.trendColor(isUptrend);
+
+        // Рисуем градиентную заливку под линией (более прозрачную)
+        drawGradientFill(g2d, isUptrend);
+
+        // Рисуем основную линию цены одним путем: отрезки по отдельности
+        // заставляют Java2D создавать фигуру на каждый из них
+        g2d.setColor(lineColor);
+        g2d.setStroke(resources.lineStroke);
+
+        Path2D.Float path = linePath;
+        path.reset();
+        path.moveTo(projection.getX(0), projection.getCloseY(0));
+        for (int i = 1; i < count; i++) {
+            path.lineTo(projection.getX(i), projection.getCloseY(i));
+        }
+        g2d.draw(path);
+
+        // Рисуем точки только на начале и конце (как в DYOR.io)
+        drawKeyPoint(g2d, 0, lineColor);
+        drawKeyPoint(g2d, count - 1, lineColor);
+
+        // Рисуем временные метки снизу
+        drawTimeLabels(g2d, height - BOTTOM_PADDING + 5);
+    }
+
+    /**
+     * Рисует линию индикатора по точкам проекции; значения вне диапазона цен прижимаются к краю графика
+     */
+    private void drawIndicatorLine(Graphics2D g2d, IndicatorEngine indicators, int indicator, int line, Color color) {
+        int count = projection.getCount();
+        int top = projection.getTop();
+        int bottom = top + projection.getChartHeight();
+        int half = projection.getCandleWidth() / 2;
+        g2d.setColor(color);
+
+        int prevX = 0;
+        int prevY = 0;
+        boolean hasPrev = false;
+        for (int i = 0; i < count; i++) {
+            double value = indicators.getValue(indicator, line, sourceIndex(i));
+            if (Double.isNaN(value)) {
+                hasPrev = false; // Индикатор еще набирает историю
+                continue;
+            }
+
+            int x = projection.getX(i) + half;
+            int y = Math.max(top, Math.min(bottom, projection.projectY(value)));
+            if (hasPrev) {
+                g2d.drawLine(prevX, prevY, x, y);
+            }
+            prevX = x;
+            prevY = y;
+            hasPrev = true;
+        }
+    }
+
+    /**
+     * Свеча исходного ряда для точки проекции. У прореженного ряда - первая свеча
+     * группы точки, последняя точка - последняя видимая свеча.
+     */
+    private int sourceIndex(int point) {
+        int count = projection.getCount();
+        if (point == count - 1) {
+            return sourceFrom + sourceCount - 1;
+        }
+        return sourceFrom + (int) ((long) point * sourceCount / count);
+    }
+
+    /**
+     * Подпись осциллятора со значением на последней видимой свече; строка пересоздается при смене значения
+     */
+    private String oscillatorLabel(IndicatorEngine indicators, int indicator) {
+        if (oscillatorLabels.length < indicators.getIndicatorCount()) {
+            oscillatorLabels = new String[indicators.getIndicatorCount()];
+            oscillatorLabelValues = new double[indicators.getIndicatorCount()];
+        }
+
+        double value = indicators.getValue(indicator, 0, sourceFrom + sourceCount - 1);
+        if (oscillatorLabels[indicator] == null || Double.compare(value, oscillatorLabelValues[indicator]) != 0) {
+            String name = indicators.getIndicator(indicator).getName();
+            oscillatorLabels[indicator] = Double.isNaN(value)
+                ? name + " —"
+                : name + " " + BigDecimal.valueOf(value).setScale(1, RoundingMode.HALF_UP).toPlainString();
+            oscillatorLabelValues[indicator] = value;
+        }
+        return oscillatorLabels[indicator];
+    }
+
+    /**
+     * Белый круг с цветной обводкой в точке линии
+     */
+    private void drawKeyPoint(Graphics2D g2d, int index, Color lineColor) {
+        int x = projection.getX(index);
+        int y = projection.getCloseY(index);
+
+        g2d.setColor(Color.WHITE);
+        g2d.fillOval(x - 4, y - 4, 8, 8);
+        g2d.setColor(lineColor);
+        g2d.setStroke(resources.pointStroke);
+        g2d.drawOval(x - 4, y - 4, 8, 8);
+    }
+
+    private void drawCandlestickChart(Graphics2D g2d) {
+        CandleSeries series = projection.getSeries();
+        int first = projection.getFirstIndex();
+
+        // Рисуем ценовую шкалу слева
+        drawGridLayer(g2d, projection.getMinPrice(), projection.getMaxPrice());
+
+        // Ширина свечи и расстояние
+        int candleWidth = projection.getCandleWidth();
+        int step = projection.getStep();
+
+        // При частичной перерисовке рисуем только свечи, попавшие в область
+        int from = 0;
+        int to = projection.getCount();
+        // Без отсечения getClipBounds(Rectangle) оставляет переданную область - всю область графика
+        clipBounds.setBounds(0, 0, width, height);
+        Rectangle clip = g2d.getClipBounds(clipBounds);
+        if (clip != null) {
+            from = Math.max(0, (clip.x - LEFT_PADDING - candleWidth) / step - 1);
+            to = Math.min(to, (clip.x + clip.width - LEFT_PADDING) / step + 1);
+        }
+
+        g2d.setStroke(resources.candleStroke);
+
+        // Рисуем свечи
+        for (int i = from; i < to; i++) {
+            int x = projection.getX(i);
+
+            // Координаты Y для high, low, open, close
+            int highY = projection.getHighY(i);
+            int lowY = projection.getLowY(i);
+            int openY = projection.getOpenY(i);
+            int closeY = projection.getCloseY(i);
+
+            boolean bullish = series.isBullish(first + i);
+            boolean bearish = series.isBearish(first + i);
+
+            // Цвета как в GeckoTerminal
+            Color candleColor;
+            if (bullish) {
+                candleColor = resources.bullish; // Зеленый для роста (close > open)
+            } else if (bearish) {
+                candleColor = resources.bearish; // Красный для падения (close < open)
+            } else {
+                candleColor = resources.neutral; // Серый
+            }
+
+            g2d.setColor(candleColor);
+
+            // Рисуем фитиль (high-low линия)
+            int wickX = x + candleWidth / 2;
+            g2d.drawLine(wickX, highY, wickX, lowY);
+
+            // Рисуем тело свечи
+            int bodyTop = Math.min(openY, closeY);
+            int bodyHeight = Math.abs(closeY - openY);
+
+            if (bodyHeight < 1) bodyHeight = 1; // Минимальная высота
+
+            if (bullish || bearish) {
+                // Бычья (зеленая) или медвежья (красная) свеча - заполненная
+                g2d.fillRect(x, bodyTop, candleWidth, bodyHeight);
+            } else {
+                // Доджи свеча (серая, цена не изменилась) - только линия
+                g2d.drawRect(x, bodyTop, candleWidth, bodyHeight);
+            }
+        }
+
+        // Рисуем временные метки снизу
+        drawTimeLabels(g2d, height - BOTTOM_PADDING + 5);
+    }
+
+    /**
+     * Рисует градиентную заливку под линией графика по точкам проекции.
+     * Каждый столбец пикселей - кусок готового столбца градиента от линии до низа
+     * графика, поэтому кадр не создает контекст GradientPaint и не растеризует фигуру.
+     */
+    private void drawGradientFill(Graphics2D g2d, boolean uptrend) {
+        int count = projection.getCount();
+        if (count < 2) return;
+
+        // Градиент от цвета линии к прозрачному берется из ресурсов темы
+        int topY = projection.getTop();
+        int chartHeight = projection.getChartHeight();
+        int bottomY = topY + chartHeight;
+        BufferedImage column = resources.fillColumn(uptrend, chartHeight);
+
+        int segment = 0;
+        int lastX = projection.getX(count - 1);
+        for (int x = projection.getX(0); x <= lastX; x++) {
+            // Отрезок линии, накрывающий столбец x
+            while (segment < count - 2 && projection.getX(segment + 1) <= x) {
+                segment++;
+            }
+            int x0 = projection.getX(segment);
+            int x1 = projection.getX(segment + 1);
+            int y0 = projection.getCloseY(segment);
+            int y1 = projection.getCloseY(segment + 1);
+            int y = x1 > x0 ? y0 + (y1 - y0) * (x - x0) / (x1 - x0) : Math.min(y0, y1);
+            y = Math.max(y, topY);
+            if (y < bottomY) {
+                g2d.drawImage(column, x, y, x + 1, bottomY, 0, y - topY, 1, chartHeight, null);
+            }
+        }
+    }
+
+    /**
+     * Рисует сетку и ценовую шкалу из кэшированного изображения.
+     * Слой перерисовывается только при смене размера, масштаба экрана, темы или диапазона цен.
+     */
+    private void drawGridLayer(Graphics2D g2d, double minPrice, double maxPrice) {
+        // На HiDPI экранах рисуем слой в физических пикселях, иначе он будет размытым
+        double scaleX = g2d.getTransform().getScaleX();
+        double scaleY = g2d.getTransform().getScaleY();
+
+        if (gridLayer == null || gridLayerWidth != width || gridLayerHeight != height
+            || gridLayerScaleX != scaleX || gridLayerScaleY != scaleY || gridLayerResources != resources
+            || gridLayerMinPrice != minPrice || gridLayerMaxPrice != maxPrice) {
+            int imageWidth = Math.max(1, (int) Math.ceil(width * scaleX));
+            int imageHeight = Math.max(1, (int) Math.ceil(height * scaleY));
+            if (gridLayer == null || gridLayer.getWidth() != imageWidth || gridLayer.getHeight() != imageHeight) {
+                gridLayer = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+            }
+
+            Graphics2D layer = gridLayer.createGraphics();
+            layer.setComposite(AlphaComposite.Clear);
+            layer.fillRect(0, 0, imageWidth, imageHeight);
+            layer.setComposite(AlphaComposite.SrcOver);
+            layer.scale(scaleX, scaleY);
+            layer.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            layer.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            drawPriceScale(layer, minPrice, maxPrice, height - BOTTOM_PADDING);
+            layer.dispose();
+
+            gridLayerWidth = width;
+            gridLayerHeight = height;
+            gridLayerScaleX = scaleX;
+            gridLayerScaleY = scaleY;
+            gridLayerResources = resources;
+            gridLayerMinPrice = minPrice;
+            gridLayerMaxPrice = maxPrice;
+        }
+
+        g2d.drawImage(gridLayer, 0, 0, width, height, null);
+    }
+
+    /**
+     * Рисует ценовую шкалу слева от графика
+     */
+    private void drawPriceScale(Graphics2D g2d, double minPrice, double maxPrice, int bottomY) {
+        g2d.setColor(resources.primaryText);
+        g2d.setFont(resources.scaleFont);
+
+        // Ширина области графика и правый край линий сетки
+        int chartWidth = width - LEFT_PADDING - RIGHT_PADDING;
+        int rightX = width - RIGHT_PADDING;
+
+        // Количество основных делений на шкале
+        int mainDivisions = 5;
+        BigDecimal priceStep = BigDecimal.valueOf(maxPrice - minPrice).divide(new BigDecimal(mainDivisions), 6, RoundingMode.HALF_UP);
+
+        // Рисуем основные деления с подписями
+        for (int i = 0; i <= mainDivisions; i++) {
+            BigDecimal price = BigDecimal.valueOf(minPrice).add(priceStep.multiply(new BigDecimal(i)));
+            int y = bottomY - (i * (bottomY - TOP_PADDING) / mainDivisions);
+
+            // Форматируем цену
+            String priceText;
+            if (price.compareTo(new BigDecimal("0.01")) < 0) {
+                priceText = "$" + price.setScale(4, RoundingMode.HALF_UP).toPlainString();
+            } else {
+                priceText = "$" + price.setScale(2, RoundingMode.HALF_UP).toPlainString();
+            }
+
+            // Рисуем текст справа от левого края
+            g2d.drawString(priceText, 2, y + 3);
+
+            // Рисуем основную горизонтальную линию сетки (более яркую)
+            g2d.setColor(resources.gridMain);
+            g2d.setStroke(resources.gridMainStroke);
+            g2d.drawLine(LEFT_PADDING, y, rightX, y);
+
+            // Возвращаем цвет текста
+            g2d.setColor(resources.primaryText);
+        }
+
+        // Рисуем промежуточные линии между основными делениями
+        int subDivisions = 2; // Количество промежуточных линий между основными
+        for (int i = 0; i < mainDivisions; i++) {
+            for (int j = 1; j <= subDivisions; j++) {
+                int y = bottomY - ((i * subDivisions + j) * (bottomY - TOP_PADDING) / (mainDivisions * subDivisions));
+
+                // Рисуем тонкую промежуточную линию
+                g2d.setColor(resources.gridSub);
+                g2d.setStroke(resources.gridSubStroke);
+                g2d.drawLine(LEFT_PADDING, y, rightX, y);
+            }
+        }
+
+        // Добавляем дополнительные мелкие деления для еще большей детализации
+        int microDivisions = 5; // Еще более мелкие линии
+        for (int i = 0; i < mainDivisions * subDivisions; i++) {
+            for (int j = 1; j < microDivisions; j++) {
+                int y = bottomY - ((i * microDivisions + j) * (bottomY - TOP_PADDING) / (mainDivisions * subDivisions * microDivisions));
+
+                // Рисуем очень тонкие микро-линии (только в правой части графика)
+                g2d.setColor(resources.gridMicro);
+                g2d.setStroke(resources.gridMicroStroke);
+                g2d.drawLine(LEFT_PADDING + chartWidth * 3/4, y, rightX, y);
+            }
+        }
+    }
+
+    /**
+     * Рисует временные метки снизу графика по точкам проекции
+     */
+    private void drawTimeLabels(Graphics2D g2d, int y) {
+        int count = projection.getCount();
+        if (count == 0) return;
+        CandleSeries series = projection.getSeries();
+        int first = projection.getFirstIndex();
+
+        g2d.setColor(resources.primaryText);
+        g2d.setFont(resources.scaleFont);
+
+        // Показываем время для первой, средней и последней свечи
+        for (int slot = 0; slot < timeLabels.length; slot++) {
+            int i = slot == 0 ? 0 : (slot == 1 ? count / 2 : count - 1);
+            long time = series.getTime(first + i);
+
+            // Подпись форматируется в локальном времени только при смене свечи в этой позиции
+            if (time != timeLabelTimes[slot]) {
+                timeLabels[slot] = LocalDateTime.ofInstant(Instant.ofEpochSecond(time), ZoneId.systemDefault())
+                    .format(timeFormatter);
+                timeLabelWidths[slot] = g2d.getFontMetrics().stringWidth(timeLabels[slot]);
+                timeLabelTimes[slot] = time;
+            }
+
+            // Позиция X метки - центр свечи (точки линии) из проекции
+            int x = projection.getX(i) + projection.getCandleWidth() / 2;
+
+            // Центрируем текст
+            g2d.drawString(timeLabels[slot], x - timeLabelWidths[slot] / 2, y + 12);
+        }
+    }
+}
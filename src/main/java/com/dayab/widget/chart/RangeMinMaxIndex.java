@@ -0,0 +1,98 @@
+package com.dayab.widget.chart;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Дерево отрезков для минимума и максимума цены на любом диапазоне свечей
+ * Для свечей берутся минимумы и максимумы, для линии - закрытия (как в ChartProjection).
+ * Построение O(N) - только при изменении ряда, запрос диапазона и обновление
+ * одной свечи - O(log N), поэтому масштаб видимой части не требует прохода по ряду.
+ */
+public final class RangeMinMaxIndex {
+
+    private double[] mins = new double[0];
+    private double[] maxs = new double[0];
+    private int size;
+
+    private CandleSeries series;
+    private int seriesModCount;
+    private ChartProjection.Mode mode;
+
+    /**
+     * Перестраивает дерево, если изменился ряд или режим
+     */
+    public void sync(CandleSeries series, ChartProjection.Mode mode) {
+        if (this.series == series && seriesModCount == series.getModCount() && this.mode == mode) {
+            return;
+        }
+
+        this.series = series;
+        this.seriesModCount = series.getModCount();
+        this.mode = mode;
+        this.size = series.size();
+        if (mins.length < 2 * size) {
+            mins = new double[2 * size];
+            maxs = new double[2 * size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            mins[size + i] = lowOf(i);
+            maxs[size + i] = highOf(i);
+        }
+        for (int node = size - 1; node > 0; node--) {
+            mins[node] = Math.min(mins[2 * node], mins[2 * node + 1]);
+            maxs[node] = Math.max(maxs[2 * node], maxs[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Обновляет одну свечу после series.set(), не перестраивая дерево
+     */
+    public void update(int index) {
+        if (series == null || index < 0 || index >= size || series.size() != size) {
+            series = null;
+            return;
+        }
+
+        int node = size + index;
+        mins[node] = lowOf(index);
+        maxs[node] = highOf(index);
+        for (node >>= 1; node > 0; node >>= 1) {
+            mins[node] = Math.min(mins[2 * node], mins[2 * node + 1]);
+            maxs[node] = Math.max(maxs[2 * node], maxs[2 * node + 1]);
+        }
+        seriesModCount = series.getModCount();
+    }
+
+    /**
+     * Минимальная цена на диапазоне [from, to)
+     */
+    public double min(int from, int to) {
+        double result = Double.MAX_VALUE;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) result = Math.min(result, mins[l++]);
+            if ((r & 1) == 1) result = Math.min(result, mins[--r]);
+        }
+        return result;
+    }
+
+    /**
+     * Максимальная цена на диапазоне [from, to)
+     */
+    public double max(int from, int to) {
+        double result = -Double.MAX_VALUE;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) result = Math.max(result, maxs[l++]);
+            if ((r & 1) == 1) result = Math.max(result, maxs[--r]);
+        }
+        return result;
+    }
+
+    private double lowOf(int index) {
+        return mode == ChartProjection.Mode.CANDLES ? series.getLow(index) : series.getClose(index);
+    }
+
+    private double highOf(int index) {
+        return mode == ChartProjection.Mode.CANDLES ? series.getHigh(index) : series.getClose(index);
+    }
+}
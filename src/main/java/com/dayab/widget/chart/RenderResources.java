@@ -0,0 +1,119 @@
+package com.dayab.widget.chart;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Ресурсы отрисовки графика для одной темы: цвета, штрихи, шрифты и градиенты
+ * Создается один раз на тему, поэтому путь отрисовки кадра ничего не выделяет.
+ * Градиент заливки зависит еще и от высоты графика - он пересоздается только при ее смене.
+ */
+public final class RenderResources {
+
+    // Цвета темы
+    public final Color primaryText;
+    public final Color gridMain;
+    public final Color gridSub;
+    public final Color gridMicro;
+    public final Color bullish;
+    public final Color bearish;
+    public final Color neutral;
+
+    // Штрихи
+    public final BasicStroke gridMainStroke = new BasicStroke(0.8f);
+    public final BasicStroke gridSubStroke = new BasicStroke(0.3f);
+    public final BasicStroke gridMicroStroke = new BasicStroke(0.2f);
+    public final BasicStroke candleStroke = new BasicStroke(1.0f);
+    public final BasicStroke lineStroke = new BasicStroke(2.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    public final BasicStroke pointStroke = new BasicStroke(2.0f);
+    public final BasicStroke athStroke = new BasicStroke(1.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND,
+                                                         0, new float[]{5, 5}, 0); // Пунктирная линия
+    public final BasicStroke indicatorStroke = new BasicStroke(1.2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    public final BasicStroke bandStroke = new BasicStroke(0.8f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND,
+                                                          0, new float[]{3, 3}, 0);
+
+    // Шрифты
+    public final Font scaleFont = new Font("Arial", Font.PLAIN, 11);
+    public final Font athFont = new Font("Arial", Font.PLAIN, 9);
+
+    // Цвета индикаторов по порядку - читаются на обеих темах
+    private static final Color[] INDICATOR_COLORS = {
+        new Color(255, 159, 10),  // Оранжевый
+        new Color(10, 132, 255),  // Синий
+        new Color(191, 90, 242),  // Фиолетовый
+        new Color(100, 210, 255)  // Голубой
+    };
+
+    // Цвета заливки под линией: от полупрозрачного к почти прозрачному
+    private final Color bullishFillTop;
+    private final Color bullishFillBottom;
+    private final Color bearishFillTop;
+    private final Color bearishFillBottom;
+
+    // Столбцы градиента шириной 1 пиксель: заливка рисуется ими, без GradientPaint на кадр
+    private BufferedImage bullishFill;
+    private BufferedImage bearishFill;
+    private int fillHeight;
+
+    public RenderResources(Color primaryText, Color gridMain, Color gridSub, Color gridMicro,
+                           Color bullish, Color bearish, Color neutral) {
+        this.primaryText = primaryText;
+        this.gridMain = gridMain;
+        this.gridSub = gridSub;
+        this.gridMicro = gridMicro;
+        this.bullish = bullish;
+        this.bearish = bearish;
+        this.neutral = neutral;
+
+        this.bullishFillTop = withAlpha(bullish, 80);
+        this.bullishFillBottom = withAlpha(bullish, 10);
+        this.bearishFillTop = withAlpha(bearish, 80);
+        this.bearishFillBottom = withAlpha(bearish, 10);
+    }
+
+    /**
+     * Цвет линии по тренду
+     */
+    public Color trendColor(boolean uptrend) {
+        return uptrend ? bullish : bearish;
+    }
+
+    /**
+     * Цвет индикатора по его номеру
+     */
+    public Color indicatorColor(int indicator) {
+        return INDICATOR_COLORS[indicator % INDICATOR_COLORS.length];
+    }
+
+    /**
+     * Столбец градиента заливки под линией высотой height по цвету тренда:
+     * строка 0 - верх графика, последняя - низ.
+     * Вызывается только из потока отрисовки.
+     */
+    public BufferedImage fillColumn(boolean uptrend, int height) {
+        height = Math.max(height, 1);
+        if (bullishFill == null || fillHeight != height) {
+            bullishFill = gradientColumn(bullishFillTop, bullishFillBottom, height);
+            bearishFill = gradientColumn(bearishFillTop, bearishFillBottom, height);
+            fillHeight = height;
+        }
+        return uptrend ? bullishFill : bearishFill;
+    }
+
+    private static BufferedImage gradientColumn(Color top, Color bottom, int height) {
+        BufferedImage column = new BufferedImage(1, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = column.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, top, 0, height, bottom));
+        g2d.fillRect(0, 0, 1, height);
+        g2d.dispose();
+        return column;
+    }
+
+    private static Color withAlpha(Color color, int alpha) {
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+    }
+}
@@ -0,0 +1,90 @@
+package com.dayab.widget.indicator;
+
+/**
+ * Полосы Боллинджера: простое среднее закрытий за период и полосы на width
+ * стандартных отклонений выше и ниже. Закрытия последних period - 1 закрытых свечей
+ * лежат в кольцевом буфере вместе с их суммой и суммой квадратов.
+ */
+public final class BollingerBandsIndicator extends StreamingIndicator {
+
+    public static final int MIDDLE = 0;
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+
+    private final int period;
+    private final double width;
+
+    // Закрытия последних закрытых свечей
+    private final double[] ring;
+    private int head;
+    private int count;
+    private double sum;
+    private double sumSquares;
+
+    public BollingerBandsIndicator(int period, double width) {
+        super("BB " + period, 3);
+        if (period < 2) {
+            throw new IllegalArgumentException("Период полос Боллинджера должен быть не меньше 2: " + period);
+        }
+        this.period = period;
+        this.width = width;
+        this.ring = new double[period - 1];
+    }
+
+    @Override
+    public boolean isOverlay() {
+        return true;
+    }
+
+    @Override
+    protected void resetState() {
+        head = 0;
+        count = 0;
+        sum = 0;
+        sumSquares = 0;
+    }
+
+    @Override
+    protected void commit() {
+        if (count < ring.length) {
+            ring[(head + count) % ring.length] = liveClose;
+            count++;
+            sum += liveClose;
+            sumSquares += liveClose * liveClose;
+            return;
+        }
+
+        double oldest = ring[head];
+        ring[head] = liveClose;
+        head = (head + 1) % ring.length;
+        sum += liveClose - oldest;
+        sumSquares += liveClose * liveClose - oldest * oldest;
+
+        // Раз в оборот буфера пересчитываем суммы, чтобы не копилась ошибка округления
+        if (head == 0) {
+            sum = 0;
+            sumSquares = 0;
+            for (double close : ring) {
+                sum += close;
+                sumSquares += close * close;
+            }
+        }
+    }
+
+    @Override
+    protected void update() {
+        if (count < ring.length) {
+            setValue(MIDDLE, Double.NaN);
+            setValue(UPPER, Double.NaN);
+            setValue(LOWER, Double.NaN);
+            return;
+        }
+
+        double mean = (sum + liveClose) / period;
+        double variance = Math.max(0, (sumSquares + liveClose * liveClose) / period - mean * mean);
+        double deviation = width * Math.sqrt(variance);
+        setValue(MIDDLE, mean);
+        setValue(UPPER, mean + deviation);
+        setValue(LOWER, mean - deviation);
+    }
+}
@@ -0,0 +1,60 @@
+package com.dayab.widget.indicator;
+
+/**
+ * Экспоненциальная скользящая средняя по закрытиям
+ * Первое значение - простое среднее за период, дальше ema += alpha * (close - ema).
+ */
+public final class EmaIndicator extends StreamingIndicator {
+
+    private final int period;
+    private final double alpha;
+
+    // Состояние закрытых свечей
+    private int closedCount;
+    private double closedSum; // Сумма закрытий, пока свечей меньше периода
+    private double closedEma;
+
+    public EmaIndicator(int period) {
+        super("EMA " + period, 1);
+        if (period < 1) {
+            throw new IllegalArgumentException("Период EMA должен быть положительным: " + period);
+        }
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+        resetState();
+    }
+
+    @Override
+    public boolean isOverlay() {
+        return true;
+    }
+
+    @Override
+    protected void resetState() {
+        closedCount = 0;
+        closedSum = 0;
+        closedEma = Double.NaN;
+    }
+
+    @Override
+    protected void commit() {
+        if (closedCount + 1 < period) {
+            closedSum += liveClose;
+        } else {
+            closedEma = getValue(0);
+        }
+        closedCount++;
+    }
+
+    @Override
+    protected void update() {
+        int total = closedCount + 1;
+        if (total < period) {
+            setValue(0, Double.NaN);
+        } else if (total == period) {
+            setValue(0, (closedSum + liveClose) / period);
+        } else {
+            setValue(0, closedEma + alpha * (liveClose - closedEma));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.dayab.widget.indicator;
+
+import java.util.Arrays;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Набор потоковых индикаторов, синхронизированный с рядом свечей
+ * sync() догоняет ряд по изменениям: новые свечи добавляются, изменение последней
+ * (тик цены или уточнение от API) пересчитывает только ее, обрезка старых свечей
+ * сдвигает сохраненные значения без пересчета. Полный пересчет - только при замене
+ * ряда или вставке свечи в середину. Значения хранятся по индексам ряда для отрисовки.
+ * Не потокобезопасен: вызывается из потока Swing.
+ */
+public final class IndicatorEngine {
+
+    private final StreamingIndicator[] indicators;
+    private final int[] firstLine;
+    private final boolean[] visible;
+
+    // Значения по линиям всех индикаторов и время обработанных свечей
+    private double[][] values;
+    private long[] times = new long[0];
+    private int size;
+
+    // Ключ актуальности
+    private CandleSeries series;
+    private int seriesModCount;
+
+    public IndicatorEngine(StreamingIndicator... indicators) {
+        this.indicators = indicators.clone();
+        this.firstLine = new int[indicators.length];
+        this.visible = new boolean[indicators.length];
+
+        int lines = 0;
+        for (int i = 0; i < indicators.length; i++) {
+            firstLine[i] = lines;
+            lines += indicators[i].getLineCount();
+        }
+        this.values = new double[lines][0];
+    }
+
+    public int getIndicatorCount() {
+        return indicators.length;
+    }
+
+    public StreamingIndicator getIndicator(int indicator) {
+        return indicators[indicator];
+    }
+
+    public boolean isVisible(int indicator) {
+        return visible[indicator];
+    }
+
+    public void setVisible(int indicator, boolean visible) {
+        this.visible[indicator] = visible;
+    }
+
+    /**
+     * Есть ли хотя бы один видимый индикатор
+     */
+    public boolean hasVisible() {
+        for (boolean v : visible) {
+            if (v) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Число свечей, для которых посчитаны значения
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Значение линии индикатора на свече index ряда; NaN, пока индикатор набирает историю
+     */
+    public double getValue(int indicator, int line, int index) {
+        return values[firstLine[indicator] + line][index];
+    }
+
+    /**
+     * Значение линии индикатора на последней свече
+     */
+    public double getLastValue(int indicator, int line) {
+        return indicators[indicator].getValue(line);
+    }
+
+    /**
+     * Догоняет изменения ряда
+     */
+    public void sync(CandleSeries series) {
+        if (this.series == series && seriesModCount == series.getModCount()) {
+            return;
+        }
+
+        int shift = alignedShift(series);
+        if (shift < 0) {
+            rebuild(series);
+        } else {
+            dropFirst(shift);
+            if (size > 0) {
+                revise(series, size - 1);
+            }
+            for (int i = size; i < series.size(); i++) {
+                append(series, i);
+            }
+        }
+
+        this.series = series;
+        this.seriesModCount = series.getModCount();
+    }
+
+    /**
+     * Пересчитывает все индикаторы по ряду
+     */
+    public void rebuild(CandleSeries series) {
+        for (StreamingIndicator indicator : indicators) {
+            indicator.reset();
+        }
+        size = 0;
+        for (int i = 0; i < series.size(); i++) {
+            append(series, i);
+        }
+        this.series = series;
+        this.seriesModCount = series.getModCount();
+    }
+
+    /**
+     * На сколько свечей обрезано начало ряда, если обработанные свечи
+     * остались на местах; -1 если ряд нужно пересчитать целиком
+     */
+    private int alignedShift(CandleSeries series) {
+        if (this.series != series || size == 0 || series.isEmpty()) {
+            return -1;
+        }
+
+        int shift = Arrays.binarySearch(times, 0, size, series.getTime(0));
+        if (shift < 0) return -1;
+
+        // Последняя обработанная свеча должна остаться на своем месте
+        int last = size - 1 - shift;
+        if (last >= series.size() || series.getTime(last) != times[size - 1]) {
+            return -1;
+        }
+        return shift;
+    }
+
+    private void dropFirst(int count) {
+        if (count == 0) return;
+        int keep = size - count;
+        System.arraycopy(times, count, times, 0, keep);
+        for (double[] line : values) {
+            System.arraycopy(line, count, line, 0, keep);
+        }
+        size = keep;
+    }
+
+    private void append(CandleSeries series, int index) {
+        ensureCapacity(index + 1);
+        for (StreamingIndicator indicator : indicators) {
+            indicator.append(series.getTime(index), series.getHigh(index), series.getLow(index),
+                             series.getClose(index), series.getVolume(index));
+        }
+        times[index] = series.getTime(index);
+        size = index + 1;
+        store(index);
+    }
+
+    private void revise(CandleSeries series, int index) {
+        for (StreamingIndicator indicator : indicators) {
+            indicator.reviseLast(series.getTime(index), series.getHigh(index), series.getLow(index),
+                                 series.getClose(index), series.getVolume(index));
+        }
+        store(index);
+    }
+
+    private void store(int index) {
+        for (int i = 0; i < indicators.length; i++) {
+            StreamingIndicator indicator = indicators[i];
+            for (int line = 0; line < indicator.getLineCount(); line++) {
+                values[firstLine[i] + line][index] = indicator.getValue(line);
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (times.length >= required) return;
+        int capacity = Math.max(required, Math.max(64, times.length + (times.length >> 1)));
+        times = Arrays.copyOf(times, capacity);
+        for (int line = 0; line < values.length; line++) {
+            values[line] = Arrays.copyOf(values[line], capacity);
+        }
+    }
+}
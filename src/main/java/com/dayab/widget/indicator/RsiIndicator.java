@@ -0,0 +1,95 @@
+package com.dayab.widget.indicator;
+
+/**
+ * Индекс относительной силы с усреднением Уайлдера, от 0 до 100
+ * Первые средние роста и падения - простые за период изменений закрытий,
+ * дальше avg = (avg * (period - 1) + change) / period.
+ */
+public final class RsiIndicator extends StreamingIndicator {
+
+    private final int period;
+
+    // Состояние закрытых свечей
+    private double prevClose;
+    private int changes;
+    private double sumGain;
+    private double sumLoss;
+    private double avgGain;
+    private double avgLoss;
+
+    // Изменение и средние для открытой свечи - переносятся в commit()
+    private double liveGain;
+    private double liveLoss;
+    private double liveAvgGain;
+    private double liveAvgLoss;
+
+    public RsiIndicator(int period) {
+        super("RSI " + period, 1);
+        if (period < 1) {
+            throw new IllegalArgumentException("Период RSI должен быть положительным: " + period);
+        }
+        this.period = period;
+        resetState();
+    }
+
+    @Override
+    public boolean isOverlay() {
+        return false;
+    }
+
+    @Override
+    protected void resetState() {
+        prevClose = Double.NaN;
+        changes = 0;
+        sumGain = 0;
+        sumLoss = 0;
+        avgGain = 0;
+        avgLoss = 0;
+    }
+
+    @Override
+    protected void commit() {
+        if (!Double.isNaN(prevClose)) {
+            if (changes + 1 < period) {
+                sumGain += liveGain;
+                sumLoss += liveLoss;
+            } else {
+                avgGain = liveAvgGain;
+                avgLoss = liveAvgLoss;
+            }
+            changes++;
+        }
+        prevClose = liveClose;
+    }
+
+    @Override
+    protected void update() {
+        if (Double.isNaN(prevClose)) {
+            setValue(0, Double.NaN);
+            return;
+        }
+
+        double change = liveClose - prevClose;
+        liveGain = Math.max(change, 0);
+        liveLoss = Math.max(-change, 0);
+
+        int total = changes + 1;
+        if (total < period) {
+            setValue(0, Double.NaN);
+            return;
+        }
+        if (total == period) {
+            liveAvgGain = (sumGain + liveGain) / period;
+            liveAvgLoss = (sumLoss + liveLoss) / period;
+        } else {
+            liveAvgGain = (avgGain * (period - 1) + liveGain) / period;
+            liveAvgLoss = (avgLoss * (period - 1) + liveLoss) / period;
+        }
+
+        if (liveAvgLoss == 0) {
+            setValue(0, liveAvgGain == 0 ? 50 : 100);
+        } else {
+            setValue(0, 100 - 100 / (1 + liveAvgGain / liveAvgLoss));
+        }
+    }
+}
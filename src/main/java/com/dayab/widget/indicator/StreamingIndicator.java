@@ -0,0 +1,111 @@
+package com.dayab.widget.indicator;
+
+import java.util.Arrays;
+
+/**
+ * Потоковый индикатор по свечам
+ * Состояние делится на закрытые свечи и одну открытую (последнюю). Новая свеча
+ * закрывает предыдущую, а изменение открытой свечи пересчитывает значение
+ * от состояния закрытых - поэтому и то и другое стоит O(1), без прохода по истории.
+ * Состояние хранится в примитивных полях; значения - по линиям (у полос Боллинджера их три).
+ */
+public abstract class StreamingIndicator {
+
+    private final String name;
+    private final double[] values;
+    private boolean hasLive;
+
+    // Открытая свеча
+    protected long liveTime;
+    protected double liveHigh;
+    protected double liveLow;
+    protected double liveClose;
+    protected double liveVolume;
+
+    protected StreamingIndicator(String name, int lineCount) {
+        this.name = name;
+        this.values = new double[lineCount];
+        Arrays.fill(values, Double.NaN);
+    }
+
+    /**
+     * Название для легенды графика, например "EMA 20"
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int getLineCount() {
+        return values.length;
+    }
+
+    /**
+     * true - значения в ценах и рисуются поверх графика, false - осциллятор со своей шкалой
+     */
+    public abstract boolean isOverlay();
+
+    /**
+     * Значение линии для открытой свечи; NaN, пока индикатор набирает историю
+     */
+    public double getValue(int line) {
+        return values[line];
+    }
+
+    /**
+     * Добавляет новую свечу; предыдущая открытая свеча становится закрытой
+     */
+    public final void append(long time, double high, double low, double close, double volume) {
+        if (hasLive) {
+            commit();
+        }
+        setLive(time, high, low, close, volume);
+        hasLive = true;
+        update();
+    }
+
+    /**
+     * Заменяет открытую свечу (тик цены или уточнение от API)
+     */
+    public final void reviseLast(long time, double high, double low, double close, double volume) {
+        if (!hasLive) {
+            append(time, high, low, close, volume);
+            return;
+        }
+        setLive(time, high, low, close, volume);
+        update();
+    }
+
+    public final void reset() {
+        hasLive = false;
+        Arrays.fill(values, Double.NaN);
+        resetState();
+    }
+
+    protected final void setValue(int line, double value) {
+        values[line] = value;
+    }
+
+    /**
+     * Сбрасывает состояние закрытых свечей
+     */
+    protected abstract void resetState();
+
+    /**
+     * Переносит открытую свечу в состояние закрытых. Значения, посчитанные
+     * для нее последним update(), еще доступны через getValue().
+     */
+    protected abstract void commit();
+
+    /**
+     * Считает значения открытой свечи от состояния закрытых
+     */
+    protected abstract void update();
+
+    private void setLive(long time, double high, double low, double close, double volume) {
+        liveTime = time;
+        liveHigh = high;
+        liveLow = low;
+        liveClose = close;
+        liveVolume = volume;
+    }
+}
@@ -0,0 +1,56 @@
+package com.dayab.widget.indicator;
+
+/**
+ * Средневзвешенная по объему цена с начала суток (UTC)
+ * Цена свечи - типичная (high + low + close) / 3. В начале новых суток сумма обнуляется.
+ */
+public final class VwapIndicator extends StreamingIndicator {
+
+    private static final long SESSION_SECONDS = 24 * 60 * 60;
+
+    // Состояние закрытых свечей текущей сессии
+    private long sessionDay;
+    private double sumPriceVolume;
+    private double sumVolume;
+
+    public VwapIndicator() {
+        super("VWAP", 1);
+        resetState();
+    }
+
+    @Override
+    public boolean isOverlay() {
+        return true;
+    }
+
+    @Override
+    protected void resetState() {
+        sessionDay = Long.MIN_VALUE;
+        sumPriceVolume = 0;
+        sumVolume = 0;
+    }
+
+    @Override
+    protected void commit() {
+        long day = Math.floorDiv(liveTime, SESSION_SECONDS);
+        if (day != sessionDay) {
+            sessionDay = day;
+            sumPriceVolume = 0;
+            sumVolume = 0;
+        }
+        sumPriceVolume += typicalPrice() * liveVolume;
+        sumVolume += liveVolume;
+    }
+
+    @Override
+    protected void update() {
+        boolean sameSession = Math.floorDiv(liveTime, SESSION_SECONDS) == sessionDay;
+        double priceVolume = (sameSession ? sumPriceVolume : 0) + typicalPrice() * liveVolume;
+        double volume = (sameSession ? sumVolume : 0) + liveVolume;
+        setValue(0, volume > 0 ? priceVolume / volume : typicalPrice());
+    }
+
+    private double typicalPrice() {
+        return (liveHigh + liveLow + liveClose) / 3;
+    }
+}
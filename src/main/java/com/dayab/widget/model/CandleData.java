@@ -80,7 +80,7 @@ public class CandleData {
      */
     public boolean isBullish() {
         if (open == null || close == null) return false;
-        return close.compareTo(open) < 0;
+        return close.compareTo(open) > 0;
     }
     
     /**
@@ -88,7 +88,7 @@ public class CandleData {
      */
     public boolean isBearish() {
         if (open == null || close == null) return false;
-        return close.compareTo(open) > 0;
+        return close.compareTo(open) < 0;
     }
     
     /**
@@ -0,0 +1,394 @@
+package com.dayab.widget.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Колоночный ряд свечей OHLCV на примитивных массивах
+ * Время хранится в секундах эпохи (long[]), цены и объем - в double[].
+ * Свечи упорядочены по времени: старые в начале, новые в конце.
+ *
+ * Срез (slice) - это представление без копирования, которое делит массивы
+ * с исходным рядом. Как и у subList, срез действителен до следующего
+ * структурного изменения исходного ряда (trim, clear, рост массивов).
+ */
+public class CandleSeries {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private long[] times;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private double[] volumes;
+
+    private final int offset;
+    private final boolean view;
+    private int size;
+
+    // Счетчик изменений - по нему кэши отрисовки понимают, что данные обновились
+    private int modCount;
+
+    public CandleSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CandleSeries(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.times = new long[initial];
+        this.opens = new double[initial];
+        this.highs = new double[initial];
+        this.lows = new double[initial];
+        this.closes = new double[initial];
+        this.volumes = new double[initial];
+        this.offset = 0;
+        this.view = false;
+    }
+
+    private CandleSeries(CandleSeries parent, int from, int to) {
+        this.times = parent.times;
+        this.opens = parent.opens;
+        this.highs = parent.highs;
+        this.lows = parent.lows;
+        this.closes = parent.closes;
+        this.volumes = parent.volumes;
+        this.offset = parent.offset + from;
+        this.size = to - from;
+        this.view = true;
+        this.modCount = parent.modCount;
+    }
+
+    // Доступ к данным
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTime(int index) {
+        return times[offset + checkIndex(index)];
+    }
+
+    public double getOpen(int index) {
+        return opens[offset + checkIndex(index)];
+    }
+
+    public double getHigh(int index) {
+        return highs[offset + checkIndex(index)];
+    }
+
+    public double getLow(int index) {
+        return lows[offset + checkIndex(index)];
+    }
+
+    public double getClose(int index) {
+        return closes[offset + checkIndex(index)];
+    }
+
+    public double getVolume(int index) {
+        return volumes[offset + checkIndex(index)];
+    }
+
+    /**
+     * Время последней свечи в секундах эпохи или Long.MIN_VALUE для пустого ряда
+     */
+    public long getLastTime() {
+        return size == 0 ? Long.MIN_VALUE : times[offset + size - 1];
+    }
+
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Возвращает true если свеча бычья (close > open)
+     */
+    public boolean isBullish(int index) {
+        return getClose(index) > getOpen(index);
+    }
+
+    /**
+     * Возвращает true если свеча медвежья (close < open)
+     */
+    public boolean isBearish(int index) {
+        return getClose(index) < getOpen(index);
+    }
+
+    // Изменение данных
+    /**
+     * Добавляет свечу в конец ряда
+     */
+    public void append(long time, double open, double high, double low, double close, double volume) {
+        checkMutable();
+        ensureCapacity(size + 1);
+        int i = size;
+        times[i] = time;
+        opens[i] = open;
+        highs[i] = high;
+        lows[i] = low;
+        closes[i] = close;
+        volumes[i] = volume;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Перезаписывает свечу по индексу (например, обновление еще открытой свечи)
+     */
+    public void set(int index, long time, double open, double high, double low, double close, double volume) {
+        checkMutable();
+        checkIndex(index);
+        times[index] = time;
+        opens[index] = open;
+        highs[index] = high;
+        lows[index] = low;
+        closes[index] = close;
+        volumes[index] = volume;
+        modCount++;
+    }
+
+    /**
+     * Оставляет только последние maxSize свечей
+     */
+    public void trimToLast(int maxSize) {
+        checkMutable();
+        int remove = size - Math.max(maxSize, 0);
+        if (remove <= 0) return;
+
+        int keep = size - remove;
+        System.arraycopy(times, remove, times, 0, keep);
+        System.arraycopy(opens, remove, opens, 0, keep);
+        System.arraycopy(highs, remove, highs, 0, keep);
+        System.arraycopy(lows, remove, lows, 0, keep);
+        System.arraycopy(closes, remove, closes, 0, keep);
+        System.arraycopy(volumes, remove, volumes, 0, keep);
+        size = keep;
+        modCount++;
+    }
+
+    public void clear() {
+        checkMutable();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Вливает свежие свечи в ряд на месте: свечи с известным временем перезаписываются
+     * (обновление открытой свечи), новые добавляются в конец или вставляются по времени.
+     * Обновление должно перекрывать ряд - начинаться не позже его последней свечи,
+     * иначе между ними может быть разрыв и ряд остается без изменений.
+     *
+     * @param update свечи, упорядоченные по времени
+     * @return false если обновление не перекрывает ряд и нужна полная перезагрузка
+     */
+    public boolean merge(CandleSeries update) {
+        checkMutable();
+        if (update.isEmpty()) return true;
+        if (size > 0 && update.getTime(0) > getLastTime()) {
+            return false;
+        }
+
+        for (int i = 0; i < update.size(); i++) {
+            long time = update.getTime(i);
+            int index = indexOfTime(time);
+            if (index >= 0) {
+                set(index, time, update.getOpen(i), update.getHigh(i), update.getLow(i),
+                    update.getClose(i), update.getVolume(i));
+            } else {
+                insert(-(index + 1), time, update.getOpen(i), update.getHigh(i), update.getLow(i),
+                    update.getClose(i), update.getVolume(i));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Упорядочивает свечи по времени.
+     * GeckoTerminal отдает OHLCV от новых к старым - обычно достаточно развернуть ряд.
+     */
+    public void sortByTime() {
+        checkMutable();
+        if (size < 2) return;
+
+        boolean ascending = true;
+        boolean descending = true;
+        for (int i = 1; i < size && (ascending || descending); i++) {
+            if (times[i] < times[i - 1]) ascending = false;
+            if (times[i] > times[i - 1]) descending = false;
+        }
+
+        if (ascending) return;
+
+        if (descending) {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                swap(i, j);
+            }
+        } else {
+            // Редкий случай - перемешанный порядок, сортируем вставками
+            for (int i = 1; i < size; i++) {
+                for (int j = i; j > 0 && times[j] < times[j - 1]; j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Возвращает срез [from, to) без копирования данных
+     */
+    public CandleSeries slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("slice [" + from + ", " + to + ") of " + size);
+        }
+        return new CandleSeries(this, from, to);
+    }
+
+    /**
+     * Возвращает независимую копию ряда
+     */
+    public CandleSeries copy() {
+        CandleSeries copy = new CandleSeries(size);
+        System.arraycopy(times, offset, copy.times, 0, size);
+        System.arraycopy(opens, offset, copy.opens, 0, size);
+        System.arraycopy(highs, offset, copy.highs, 0, size);
+        System.arraycopy(lows, offset, copy.lows, 0, size);
+        System.arraycopy(closes, offset, copy.closes, 0, size);
+        System.arraycopy(volumes, offset, copy.volumes, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    // Адаптеры для кода, работающего с CandleData
+    /**
+     * Представление ряда в виде списка CandleData.
+     * Объекты создаются при каждом обращении, поэтому в горячих путях лучше
+     * использовать примитивные геттеры.
+     */
+    public List<CandleData> asCandleDataList() {
+        return new CandleDataListView();
+    }
+
+    /**
+     * Строит ряд из списка CandleData, пропуская неполные свечи
+     */
+    public static CandleSeries fromCandleData(List<CandleData> candles) {
+        CandleSeries series = new CandleSeries(candles.size());
+        ZoneId zone = ZoneId.systemDefault();
+        for (CandleData candle : candles) {
+            if (candle.getTimestamp() == null || candle.getOpen() == null || candle.getHigh() == null
+                || candle.getLow() == null || candle.getClose() == null) {
+                continue;
+            }
+            series.append(
+                candle.getTimestamp().atZone(zone).toEpochSecond(),
+                candle.getOpen().doubleValue(),
+                candle.getHigh().doubleValue(),
+                candle.getLow().doubleValue(),
+                candle.getClose().doubleValue(),
+                candle.getVolume() != null ? candle.getVolume().doubleValue() : 0.0);
+        }
+        series.sortByTime();
+        return series;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= times.length) return;
+
+        int newCapacity = Math.max(required, times.length + (times.length >> 1) + 1);
+        times = Arrays.copyOf(times, newCapacity);
+        opens = Arrays.copyOf(opens, newCapacity);
+        highs = Arrays.copyOf(highs, newCapacity);
+        lows = Arrays.copyOf(lows, newCapacity);
+        closes = Arrays.copyOf(closes, newCapacity);
+        volumes = Arrays.copyOf(volumes, newCapacity);
+    }
+
+    /**
+     * Двоичный поиск свечи по времени, результат как у Arrays.binarySearch.
+     * Обновления почти всегда касаются хвоста, поэтому сначала проверяем последнюю свечу.
+     */
+    private int indexOfTime(long time) {
+        if (size == 0 || time > times[size - 1]) return -(size + 1);
+        if (time == times[size - 1]) return size - 1;
+        return Arrays.binarySearch(times, 0, size, time);
+    }
+
+    private void insert(int index, long time, double open, double high, double low, double close, double volume) {
+        if (index == size) {
+            append(time, open, high, low, close, volume);
+            return;
+        }
+        ensureCapacity(size + 1);
+        int tail = size - index;
+        System.arraycopy(times, index, times, index + 1, tail);
+        System.arraycopy(opens, index, opens, index + 1, tail);
+        System.arraycopy(highs, index, highs, index + 1, tail);
+        System.arraycopy(lows, index, lows, index + 1, tail);
+        System.arraycopy(closes, index, closes, index + 1, tail);
+        System.arraycopy(volumes, index, volumes, index + 1, tail);
+        times[index] = time;
+        opens[index] = open;
+        highs[index] = high;
+        lows[index] = low;
+        closes[index] = close;
+        volumes[index] = volume;
+        size++;
+        modCount++;
+    }
+
+    private void swap(int i, int j) {
+        long t = times[i]; times[i] = times[j]; times[j] = t;
+        double v;
+        v = opens[i]; opens[i] = opens[j]; opens[j] = v;
+        v = highs[i]; highs[i] = highs[j]; highs[j] = v;
+        v = lows[i]; lows[i] = lows[j]; lows[j] = v;
+        v = closes[i]; closes[i] = closes[j]; closes[j] = v;
+        v = volumes[i]; volumes[i] = volumes[j]; volumes[j] = v;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private void checkMutable() {
+        if (view) {
+            throw new UnsupportedOperationException("Срез ряда свечей доступен только для чтения");
+        }
+    }
+
+    /**
+     * Список CandleData поверх колонок ряда
+     */
+    private class CandleDataListView extends AbstractList<CandleData> implements RandomAccess {
+        private final ZoneId zone = ZoneId.systemDefault();
+
+        @Override
+        public CandleData get(int index) {
+            return new CandleData(
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(getTime(index)), zone),
+                BigDecimal.valueOf(getOpen(index)),
+                BigDecimal.valueOf(getHigh(index)),
+                BigDecimal.valueOf(getLow(index)),
+                BigDecimal.valueOf(getClose(index)),
+                BigDecimal.valueOf(getVolume(index)));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
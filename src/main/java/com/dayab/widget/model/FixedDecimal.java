@@ -0,0 +1,341 @@
+package com.dayab.widget.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Десятичное число с фиксированной точкой: long мантисса и масштаб (число знаков после точки)
+ * Значение = unscaled / 10^scale. Сравнение, расчет процентов и форматирование
+ * в StringBuilder не создают объектов. BigDecimal нужен только на границе с API.
+ */
+public final class FixedDecimal implements Comparable<FixedDecimal> {
+
+    // Максимальный масштаб - 18 знаков после точки помещаются в long
+    public static final int MAX_SCALE = 18;
+
+    public static final FixedDecimal ZERO = new FixedDecimal(0, 0);
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+    private static final double[] POW10_DOUBLE = new double[MAX_SCALE + 1];
+
+    static {
+        long value = 1;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POW10[i] = value;
+            POW10_DOUBLE[i] = value;
+            value *= 10;
+        }
+    }
+
+    private final long unscaled;
+    private final int scale;
+
+    private FixedDecimal(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    /**
+     * Создает число unscaled / 10^scale
+     */
+    public static FixedDecimal of(long unscaled, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Масштаб должен быть от 0 до " + MAX_SCALE + ": " + scale);
+        }
+        return new FixedDecimal(unscaled, scale);
+    }
+
+    public static FixedDecimal of(long value) {
+        return new FixedDecimal(value, 0);
+    }
+
+    /**
+     * Разбирает десятичную строку вида "-12.345", "0.0000123" или "1.2E-5".
+     * Знаки, не помещающиеся в long или за пределами MAX_SCALE, округляются (HALF_UP).
+     *
+     * @throws NumberFormatException если строка не является числом или целая часть слишком велика
+     */
+    public static FixedDecimal parse(CharSequence text) {
+        int length = text.length();
+        if (length == 0) {
+            throw new NumberFormatException("Пустая строка");
+        }
+
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean anyDigit = false;
+        boolean truncated = false;
+        int firstDroppedDigit = 0;
+
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                if (dot) throw new NumberFormatException("Лишняя точка: " + text);
+                dot = true;
+                continue;
+            }
+            if (c == 'e' || c == 'E') {
+                break;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Не число: " + text);
+            }
+
+            anyDigit = true;
+            int digit = c - '0';
+            if (truncated) {
+                continue;
+            }
+            if (mantissa > (Long.MAX_VALUE - digit) / 10 || (dot && scale >= MAX_SCALE)) {
+                if (!dot) {
+                    throw new NumberFormatException("Слишком большое число: " + text);
+                }
+                // Дальнейшие знаки дроби не помещаются - запоминаем первый для округления
+                truncated = true;
+                firstDroppedDigit = digit;
+                continue;
+            }
+            mantissa = mantissa * 10 + digit;
+            if (dot) scale++;
+        }
+
+        if (!anyDigit) {
+            throw new NumberFormatException("Не число: " + text);
+        }
+
+        if (i < length) {
+            // Экспонента: сдвигаем масштаб
+            int exponent = parseExponent(text, i + 1);
+            scale -= exponent;
+        }
+
+        if (truncated && firstDroppedDigit >= 5 && mantissa < Long.MAX_VALUE) {
+            mantissa++;
+        }
+
+        if (scale < 0) {
+            int shift = -scale;
+            if (shift > MAX_SCALE || mantissa > Long.MAX_VALUE / POW10[shift]) {
+                throw new NumberFormatException("Слишком большое число: " + text);
+            }
+            mantissa *= POW10[shift];
+            scale = 0;
+        } else if (scale > MAX_SCALE) {
+            int shift = scale - MAX_SCALE;
+            mantissa = shift > MAX_SCALE ? 0 : divideHalfUp(mantissa, POW10[shift]);
+            scale = MAX_SCALE;
+        }
+
+        return new FixedDecimal(negative ? -mantissa : mantissa, scale);
+    }
+
+    /**
+     * Переводит BigDecimal (граница с API) в фиксированную точку.
+     * Лишние знаки после точки округляются (HALF_UP).
+     *
+     * @throws ArithmeticException если целая часть не помещается в long
+     */
+    public static FixedDecimal fromBigDecimal(BigDecimal value) {
+        if (value == null) return null;
+
+        BigDecimal normalized = value;
+        if (normalized.scale() < 0) {
+            normalized = normalized.setScale(0);
+        }
+        if (normalized.scale() > MAX_SCALE) {
+            normalized = normalized.setScale(MAX_SCALE, RoundingMode.HALF_UP);
+        }
+        while (normalized.unscaledValue().bitLength() > 63 && normalized.scale() > 0) {
+            normalized = normalized.setScale(normalized.scale() - 1, RoundingMode.HALF_UP);
+        }
+        return new FixedDecimal(normalized.unscaledValue().longValueExact(), normalized.scale());
+    }
+
+    /**
+     * Переводит значение обратно в BigDecimal (граница с внешним кодом)
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    public long getUnscaled() {
+        return unscaled;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public double doubleValue() {
+        return unscaled / POW10_DOUBLE[scale];
+    }
+
+    public int signum() {
+        return Long.signum(unscaled);
+    }
+
+    /**
+     * Сравнивает с числом unscaled / 10^scale без создания объектов
+     */
+    public int compareTo(long otherUnscaled, int otherScale) {
+        return compare(unscaled, scale, otherUnscaled, otherScale);
+    }
+
+    @Override
+    public int compareTo(FixedDecimal other) {
+        return compare(unscaled, scale, other.unscaled, other.scale);
+    }
+
+    /**
+     * Изменение в процентах относительно base: (this - base) / base * 100.
+     * Для нулевой базы возвращает 0.
+     */
+    public double percentChangeFrom(FixedDecimal base) {
+        double baseValue = base.doubleValue();
+        if (baseValue == 0) return 0;
+        return (doubleValue() - baseValue) / baseValue * 100.0;
+    }
+
+    /**
+     * Дописывает число с fractionDigits знаками после точки (округление HALF_UP),
+     * как BigDecimal.setScale(fractionDigits, HALF_UP).toPlainString()
+     */
+    public StringBuilder appendTo(StringBuilder sb, int fractionDigits) {
+        return appendScaled(sb, unscaled, scale, fractionDigits);
+    }
+
+    /**
+     * Дописывает сокращенную запись для сумм в USD: 1.5M, 12.3K или 950
+     */
+    public StringBuilder appendCompact(StringBuilder sb) {
+        if (compare(unscaled, scale, 1_000_000, 0) >= 0) {
+            return appendScaled(sb, unscaled, scale + 6, 1).append('M');
+        } else if (compare(unscaled, scale, 1_000, 0) >= 0) {
+            return appendScaled(sb, unscaled, scale + 3, 1).append('K');
+        } else {
+            return appendScaled(sb, unscaled, scale, 0);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof FixedDecimal && compareTo((FixedDecimal) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        // Согласован с equals: нормализуем хвостовые нули
+        long m = unscaled;
+        int s = scale;
+        while (s > 0 && m % 10 == 0) {
+            m /= 10;
+            s--;
+        }
+        return 31 * Long.hashCode(m) + s;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(24), scale).toString();
+    }
+
+    // Внутренняя арифметика
+    private static int compare(long m1, int s1, long m2, int s2) {
+        if (s1 == s2) return Long.compare(m1, m2);
+        if (s1 < s2) return compareRescaled(m1, s2 - s1, m2);
+        return -compareRescaled(m2, s1 - s2, m1);
+    }
+
+    /**
+     * Знак (a * 10^shift - b). Если a * 10^shift не помещается в long,
+     * по модулю оно больше любого b, и результат определяет знак a.
+     */
+    private static int compareRescaled(long a, int shift, long b) {
+        if (a == 0) return -Long.signum(b);
+        if (shift > MAX_SCALE || Math.abs(a) > Long.MAX_VALUE / POW10[shift]) {
+            return a > 0 ? 1 : -1;
+        }
+        return Long.compare(a * POW10[shift], b);
+    }
+
+    private static StringBuilder appendScaled(StringBuilder sb, long mantissa, int scale, int fractionDigits) {
+        if (scale > fractionDigits) {
+            int shift = scale - fractionDigits;
+            // Сдвиг больше 18 знаков обнуляет любое значение long
+            mantissa = shift > MAX_SCALE ? 0 : divideHalfUp(mantissa, POW10[shift]);
+            scale = fractionDigits;
+        }
+
+        if (mantissa < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(mantissa);
+        long divisor = POW10[scale];
+        sb.append(abs / divisor);
+
+        if (fractionDigits > 0) {
+            sb.append('.');
+            long fraction = abs % divisor;
+            // Ведущие нули дробной части
+            for (int digits = scale - 1; digits > 0 && fraction < POW10[digits]; digits--) {
+                sb.append('0');
+            }
+            if (scale > 0) {
+                sb.append(fraction);
+            }
+            for (int i = scale; i < fractionDigits; i++) {
+                sb.append('0');
+            }
+        }
+        return sb;
+    }
+
+    private static long divideHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += value < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    private static int parseExponent(CharSequence text, int start) {
+        int length = text.length();
+        if (start >= length) {
+            throw new NumberFormatException("Пустая экспонента: " + text);
+        }
+
+        int i = start;
+        boolean negative = false;
+        char sign = text.charAt(i);
+        if (sign == '-' || sign == '+') {
+            negative = sign == '-';
+            i++;
+        }
+        if (i >= length) {
+            throw new NumberFormatException("Пустая экспонента: " + text);
+        }
+
+        int exponent = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Не число: " + text);
+            }
+            exponent = exponent * 10 + (c - '0');
+            if (exponent > 1000) {
+                throw new NumberFormatException("Слишком большая экспонента: " + text);
+            }
+        }
+        return negative ? -exponent : exponent;
+    }
+}
@@ -5,64 +5,116 @@ import java.time.LocalDateTime;
 
 /**
  * Модель данных для хранения информации о цене токена
+ * Значения хранятся в фиксированной точке (FixedDecimal), BigDecimal геттеры
+ * и сеттеры оставлены для совместимости и конвертируют значения на границе.
  */
 public class PriceData {
-    private BigDecimal currentPrice;
-    private BigDecimal previousPrice;
-    private BigDecimal priceChange24h;
-    private BigDecimal priceChangePercent24h;
+    // Символ снимка, который сервис возвращает при ошибке API (цена в нем - 0)
+    public static final String ERROR_SYMBOL = "ERROR";
+    
+    // Порог пампа по умолчанию - 50% за 24h
+    private static final FixedDecimal PUMP_THRESHOLD = FixedDecimal.of(50);
+    // Цены ниже 0.01 показываем с 6 знаками
+    private static final long SMALL_PRICE_UNSCALED = 1;
+    private static final int SMALL_PRICE_SCALE = 2;
+    
+    private FixedDecimal currentPrice;
+    private FixedDecimal previousPrice;
+    private FixedDecimal priceChange24h;
+    private FixedDecimal priceChangePercent24h;
     private String symbol;
     private LocalDateTime timestamp;
     private boolean isPump;
     
     // Добавляем поля для ликвидности и объема
-    private BigDecimal liquidityUsd;    // Ликвидность в USD
-    private BigDecimal volumeUsd24h;    // Объем торгов за 24 часа в USD
+    private FixedDecimal liquidityUsd;    // Ликвидность в USD
+    private FixedDecimal volumeUsd24h;    // Объем торгов за 24 часа в USD
     
     public PriceData() {}
     
     public PriceData(BigDecimal currentPrice, String symbol) {
-        this.currentPrice = currentPrice;
+        this.currentPrice = FixedDecimal.fromBigDecimal(currentPrice);
         this.symbol = symbol;
         this.timestamp = LocalDateTime.now();
         this.isPump = false;
     }
     
-    // Getters and Setters
-    public BigDecimal getCurrentPrice() {
+    // Getters and Setters (фиксированная точка)
+    public FixedDecimal getCurrentPriceFixed() {
         return currentPrice;
     }
     
-    public void setCurrentPrice(BigDecimal currentPrice) {
+    public void setCurrentPriceFixed(FixedDecimal currentPrice) {
         this.currentPrice = currentPrice;
     }
     
-    public BigDecimal getPreviousPrice() {
+    public FixedDecimal getPreviousPriceFixed() {
         return previousPrice;
     }
     
-    public void setPreviousPrice(BigDecimal previousPrice) {
+    public void setPreviousPriceFixed(FixedDecimal previousPrice) {
         this.previousPrice = previousPrice;
     }
     
+    public FixedDecimal getPriceChangePercent24hFixed() {
+        return priceChangePercent24h;
+    }
+    
+    public void setPriceChangePercent24hFixed(FixedDecimal priceChangePercent24h) {
+        this.priceChangePercent24h = priceChangePercent24h;
+        // Проверяем на памп более 50%
+        if (priceChangePercent24h != null && priceChangePercent24h.compareTo(PUMP_THRESHOLD) > 0) {
+            this.isPump = true;
+        }
+    }
+    
+    public FixedDecimal getLiquidityUsdFixed() {
+        return liquidityUsd;
+    }
+    
+    public void setLiquidityUsdFixed(FixedDecimal liquidityUsd) {
+        this.liquidityUsd = liquidityUsd;
+    }
+    
+    public FixedDecimal getVolumeUsd24hFixed() {
+        return volumeUsd24h;
+    }
+    
+    public void setVolumeUsd24hFixed(FixedDecimal volumeUsd24h) {
+        this.volumeUsd24h = volumeUsd24h;
+    }
+    
+    // Getters and Setters (BigDecimal, конвертация на границе)
+    public BigDecimal getCurrentPrice() {
+        return toBigDecimal(currentPrice);
+    }
+    
+    public void setCurrentPrice(BigDecimal currentPrice) {
+        this.currentPrice = FixedDecimal.fromBigDecimal(currentPrice);
+    }
+    
+    public BigDecimal getPreviousPrice() {
+        return toBigDecimal(previousPrice);
+    }
+    
+    public void setPreviousPrice(BigDecimal previousPrice) {
+        this.previousPrice = FixedDecimal.fromBigDecimal(previousPrice);
+    }
+    
     public BigDecimal getPriceChange24h() {
-        return priceChange24h;
+        return toBigDecimal(priceChange24h);
     }
     
     public void setPriceChange24h(BigDecimal priceChange24h) {
-        this.priceChange24h = priceChange24h;
+        this.priceChange24h = FixedDecimal.fromBigDecimal(priceChange24h);
     }
     
     public BigDecimal getPriceChangePercent24h() {
-        return priceChangePercent24h;
+        return toBigDecimal(priceChangePercent24h);
     }
     
     public void setPriceChangePercent24h(BigDecimal priceChangePercent24h) {
-        this.priceChangePercent24h = priceChangePercent24h;
-        // Проверяем на памп более 50%
-        if (priceChangePercent24h != null && priceChangePercent24h.compareTo(new BigDecimal("50")) > 0) {
-            this.isPump = true;
-        }
+        setPriceChangePercent24hFixed(FixedDecimal.fromBigDecimal(priceChangePercent24h));
     }
     
     public String getSymbol() {
@@ -73,6 +125,13 @@ public class PriceData {
         this.symbol = symbol;
     }
     
+    /**
+     * Снимок с ошибкой API, а не рыночные данные
+     */
+    public boolean isError() {
+        return ERROR_SYMBOL.equals(symbol);
+    }
+    
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -90,33 +149,49 @@ public class PriceData {
     }
     
     public BigDecimal getLiquidityUsd() {
-        return liquidityUsd;
+        return toBigDecimal(liquidityUsd);
     }
     
     public void setLiquidityUsd(BigDecimal liquidityUsd) {
-        this.liquidityUsd = liquidityUsd;
+        this.liquidityUsd = FixedDecimal.fromBigDecimal(liquidityUsd);
     }
     
     public BigDecimal getVolumeUsd24h() {
-        return volumeUsd24h;
+        return toBigDecimal(volumeUsd24h);
     }
     
     public void setVolumeUsd24h(BigDecimal volumeUsd24h) {
-        this.volumeUsd24h = volumeUsd24h;
+        this.volumeUsd24h = FixedDecimal.fromBigDecimal(volumeUsd24h);
+    }
+    
+    /**
+     * Изменение текущей цены относительно предыдущей в процентах (0 если данных нет)
+     */
+    public double getPriceChangePercentFromPrevious() {
+        if (currentPrice == null || previousPrice == null) return 0;
+        return currentPrice.percentChangeFrom(previousPrice);
     }
     
     /**
      * Возвращает тренд цены как строку
      */
     public String getTrend() {
-        if (priceChangePercent24h == null) return "—";
+        return appendTrend(new StringBuilder(16)).toString();
+    }
+    
+    /**
+     * Дописывает тренд цены в переданный буфер
+     */
+    public StringBuilder appendTrend(StringBuilder sb) {
+        if (priceChangePercent24h == null) return sb.append('—');
         
-        if (priceChangePercent24h.compareTo(BigDecimal.ZERO) > 0) {
-            return "↗ +" + priceChangePercent24h.setScale(2, BigDecimal.ROUND_HALF_UP) + "%";
-        } else if (priceChangePercent24h.compareTo(BigDecimal.ZERO) < 0) {
-            return "↘ " + priceChangePercent24h.setScale(2, BigDecimal.ROUND_HALF_UP) + "%";
+        int sign = priceChangePercent24h.signum();
+        if (sign > 0) {
+            return priceChangePercent24h.appendTo(sb.append("↗ +"), 2).append('%');
+        } else if (sign < 0) {
+            return priceChangePercent24h.appendTo(sb.append("↘ "), 2).append('%');
         } else {
-            return "→ 0.00%";
+            return sb.append("→ 0.00%");
         }
     }
     
@@ -124,12 +199,20 @@ public class PriceData {
      * Возвращает форматированную цену
      */
     public String getFormattedPrice() {
-        if (currentPrice == null) return "—";
+        return appendFormattedPrice(new StringBuilder(16)).toString();
+    }
+    
+    /**
+     * Дописывает форматированную цену в переданный буфер
+     */
+    public StringBuilder appendFormattedPrice(StringBuilder sb) {
+        if (currentPrice == null) return sb.append('—');
         
-        if (currentPrice.compareTo(new BigDecimal("0.01")) < 0) {
-            return "$" + currentPrice.setScale(6, BigDecimal.ROUND_HALF_UP).toPlainString();
+        sb.append('$');
+        if (currentPrice.compareTo(SMALL_PRICE_UNSCALED, SMALL_PRICE_SCALE) < 0) {
+            return currentPrice.appendTo(sb, 6);
         } else {
-            return "$" + currentPrice.setScale(4, BigDecimal.ROUND_HALF_UP).toPlainString();
+            return currentPrice.appendTo(sb, 4);
         }
     }
     
@@ -137,31 +220,33 @@ public class PriceData {
      * Возвращает форматированную ликвидность
      */
     public String getFormattedLiquidity() {
-        if (liquidityUsd == null) return "—";
-        
-        BigDecimal value = liquidityUsd;
-        if (value.compareTo(new BigDecimal("1000000")) >= 0) {
-            return "$" + value.divide(new BigDecimal("1000000"), 1, BigDecimal.ROUND_HALF_UP) + "M";
-        } else if (value.compareTo(new BigDecimal("1000")) >= 0) {
-            return "$" + value.divide(new BigDecimal("1000"), 1, BigDecimal.ROUND_HALF_UP) + "K";
-        } else {
-            return "$" + value.setScale(0, BigDecimal.ROUND_HALF_UP);
-        }
+        return appendFormattedLiquidity(new StringBuilder(16)).toString();
+    }
+    
+    /**
+     * Дописывает форматированную ликвидность в переданный буфер
+     */
+    public StringBuilder appendFormattedLiquidity(StringBuilder sb) {
+        if (liquidityUsd == null) return sb.append('—');
+        return liquidityUsd.appendCompact(sb.append('$'));
     }
     
     /**
      * Возвращает форматированный объем торгов
      */
     public String getFormattedVolume() {
-        if (volumeUsd24h == null) return "—";
-        
-        BigDecimal value = volumeUsd24h;
-        if (value.compareTo(new BigDecimal("1000000")) >= 0) {
-            return "$" + value.divide(new BigDecimal("1000000"), 1, BigDecimal.ROUND_HALF_UP) + "M";
-        } else if (value.compareTo(new BigDecimal("1000")) >= 0) {
-            return "$" + value.divide(new BigDecimal("1000"), 1, BigDecimal.ROUND_HALF_UP) + "K";
-        } else {
-            return "$" + value.setScale(0, BigDecimal.ROUND_HALF_UP);
-        }
+        return appendFormattedVolume(new StringBuilder(16)).toString();
+    }
+    
+    /**
+     * Дописывает форматированный объем торгов в переданный буфер
+     */
+    public StringBuilder appendFormattedVolume(StringBuilder sb) {
+        if (volumeUsd24h == null) return sb.append('—');
+        return volumeUsd24h.appendCompact(sb.append('$'));
+    }
+    
+    private static BigDecimal toBigDecimal(FixedDecimal value) {
+        return value != null ? value.toBigDecimal() : null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,226 @@
+package com.dayab.widget.model;
+
+/**
+ * Кольцевой буфер тиков цены фиксированной емкости на примитивных массивах
+ * Каждый тик - время (мс), цена, ликвидность и объем за 24ч. Между обновлениями
+ * свечей так сохраняется движение цены внутри свечи.
+ *
+ * Скользящее окно windowMillis до последнего тика обслуживают монотонные очереди
+ * номеров тиков: минимум и максимум цены в окне - их головы, изменение - разница
+ * с первым тиком окна. Добавление и все запросы окна - амортизированно O(1).
+ * Индексы тиков идут от 0 (самый старый из хранимых) до size() - 1 (последний).
+ * Не потокобезопасен: вызывается из одного потока.
+ */
+public class TickHistory {
+
+    private final int capacity;
+    private final long windowMillis;
+
+    private final long[] times;
+    private final double[] prices;
+    private final double[] liquidities;
+    private final double[] volumes;
+
+    // Номер следующего тика и число хранимых; тик с номером seq лежит в ячейке seq % capacity
+    private long total;
+    private int size;
+
+    // Первый тик окна
+    private long windowStart;
+
+    // Монотонные очереди номеров тиков окна: цены убывают (максимум) и возрастают (минимум)
+    private final long[] maxQueue;
+    private int maxHead;
+    private int maxCount;
+    private final long[] minQueue;
+    private int minHead;
+    private int minCount;
+
+    public TickHistory(int capacity, long windowMillis) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Емкость должна быть не меньше 2: " + capacity);
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Окно должно быть положительным: " + windowMillis);
+        }
+        this.capacity = capacity;
+        this.windowMillis = windowMillis;
+        this.times = new long[capacity];
+        this.prices = new double[capacity];
+        this.liquidities = new double[capacity];
+        this.volumes = new double[capacity];
+        this.maxQueue = new long[capacity];
+        this.minQueue = new long[capacity];
+    }
+
+    /**
+     * Добавляет тик; при заполненном буфере вытесняется самый старый.
+     * Время не убывает: тик раньше последнего получает время последнего.
+     * Тик с неположительной ценой или NaN отбрасывается - иначе он попал бы
+     * в минимум окна и дал изменение -100%.
+     *
+     * @param liquidity ликвидность или NaN, если неизвестна
+     * @param volume объем за 24ч или NaN, если неизвестен
+     * @return false, если тик отброшен
+     */
+    public boolean append(long timeMillis, double price, double liquidity, double volume) {
+        if (!(price > 0)) {
+            return false;
+        }
+        if (size > 0) {
+            timeMillis = Math.max(timeMillis, timeOf(total - 1));
+        }
+        if (size == capacity) {
+            size--;
+        }
+
+        long seq = total;
+        int slot = slot(seq);
+        times[slot] = timeMillis;
+        prices[slot] = price;
+        liquidities[slot] = liquidity;
+        volumes[slot] = volume;
+        total++;
+        size++;
+
+        // Вытесненный из буфера тик уходит из голов очередей до того, как его ячейку прочитают
+        windowStart = Math.max(windowStart, total - size);
+        evictBefore(windowStart);
+
+        // Новый тик вытесняет из хвостов очередей все, что им перекрыто
+        while (maxCount > 0 && priceOf(maxQueue[(maxHead + maxCount - 1) % capacity]) <= price) {
+            maxCount--;
+        }
+        maxQueue[(maxHead + maxCount) % capacity] = seq;
+        maxCount++;
+        while (minCount > 0 && priceOf(minQueue[(minHead + minCount - 1) % capacity]) >= price) {
+            minCount--;
+        }
+        minQueue[(minHead + minCount) % capacity] = seq;
+        minCount++;
+
+        // Сдвигаем начало окна за устаревшие по времени тики
+        long from = timeMillis - windowMillis;
+        while (timeOf(windowStart) < from) {
+            windowStart++;
+        }
+        evictBefore(windowStart);
+        return true;
+    }
+
+    public void clear() {
+        total = 0;
+        size = 0;
+        windowStart = 0;
+        maxHead = 0;
+        maxCount = 0;
+        minHead = 0;
+        minCount = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public long getTime(int index) {
+        return timeOf(seqOf(index));
+    }
+
+    public double getPrice(int index) {
+        return priceOf(seqOf(index));
+    }
+
+    public double getLiquidity(int index) {
+        return liquidities[slot(seqOf(index))];
+    }
+
+    public double getVolume(int index) {
+        return volumes[slot(seqOf(index))];
+    }
+
+    /**
+     * Индекс первого тика окна
+     */
+    public int getWindowStartIndex() {
+        return size == 0 ? 0 : (int) (windowStart - (total - size));
+    }
+
+    /**
+     * Число тиков в окне
+     */
+    public int getWindowSize() {
+        return size == 0 ? 0 : (int) (total - windowStart);
+    }
+
+    /**
+     * Минимальная цена в окне; NaN без тиков
+     */
+    public double getWindowMinPrice() {
+        return size == 0 ? Double.NaN : priceOf(minQueue[minHead]);
+    }
+
+    /**
+     * Максимальная цена в окне; NaN без тиков
+     */
+    public double getWindowMaxPrice() {
+        return size == 0 ? Double.NaN : priceOf(maxQueue[maxHead]);
+    }
+
+    /**
+     * Изменение цены от первого тика окна до последнего; NaN без тиков
+     */
+    public double getWindowDelta() {
+        return size == 0 ? Double.NaN : priceOf(total - 1) - priceOf(windowStart);
+    }
+
+    /**
+     * Изменение цены за окно в процентах; NaN, если в окне меньше двух тиков
+     */
+    public double getWindowDeltaPercent() {
+        if (getWindowSize() < 2) return Double.NaN;
+        double base = priceOf(windowStart);
+        return base > 0 ? (priceOf(total - 1) - base) / base * 100 : Double.NaN;
+    }
+
+    private void evictBefore(long seq) {
+        while (maxCount > 0 && maxQueue[maxHead] < seq) {
+            maxHead = (maxHead + 1) % capacity;
+            maxCount--;
+        }
+        while (minCount > 0 && minQueue[minHead] < seq) {
+            minHead = (minHead + 1) % capacity;
+            minCount--;
+        }
+    }
+
+    private long seqOf(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return total - size + index;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    private long timeOf(long seq) {
+        return times[slot(seq)];
+    }
+
+    private double priceOf(long seq) {
+        return prices[slot(seq)];
+    }
+}
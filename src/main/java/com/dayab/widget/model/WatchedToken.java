@@ -0,0 +1,50 @@
+package com.dayab.widget.model;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Токен в списке наблюдения: сеть, адрес контракта и отображаемый символ
+ * Токены равны, если совпадают сеть и адрес (без учета регистра).
+ */
+public final class WatchedToken {
+    private final String network;
+    private final String address;
+    private final String symbol;
+
+    public WatchedToken(String network, String address, String symbol) {
+        this.network = Objects.requireNonNull(network, "network");
+        this.address = Objects.requireNonNull(address, "address");
+        this.symbol = symbol != null ? symbol : address;
+    }
+
+    public String getNetwork() {
+        return network;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof WatchedToken)) return false;
+        WatchedToken token = (WatchedToken) other;
+        return network.equalsIgnoreCase(token.network) && address.equalsIgnoreCase(token.address);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(network.toLowerCase(Locale.ROOT), address.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return symbol + " (" + network + ")";
+    }
+}
@@ -0,0 +1,241 @@
+package com.dayab.widget.service;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Проигрывание пользовательского звука пампа
+ * Короткий файл декодируется один раз в Clip, который остается открытым и
+ * переиспользуется, пока не сменится файл. Длинный (или неизвестной длины)
+ * файл не загружается в память, а читается с диска порциями в SourceDataLine
+ * через буфер фиксированного размера. Поэтому память не зависит от выбранного файла.
+ */
+public final class CustomSoundPlayer {
+
+    // Файлы не длиннее и не больше этого держим в памяти целиком
+    private static final long CLIP_MAX_MICROS = 10_000_000L;
+    private static final long CLIP_MAX_BYTES = 4L * 1024 * 1024;
+
+    // Буфер потокового воспроизведения (и порция чтения с диска)
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+
+    private final ExecutorService streamExecutor;
+    private final byte[] streamBuffer = new byte[STREAM_BUFFER_BYTES];
+
+    // Кэшированный короткий звук - под this
+    private Clip cachedClip;
+    private String cachedPath;
+    private long cachedModified;
+    private long cachedLength;
+    private boolean closed;
+
+    // Номер текущего потокового воспроизведения; остановка его увеличивает
+    private volatile int streamGeneration;
+    private volatile boolean streaming;
+    private volatile SourceDataLine streamLine;
+
+    public CustomSoundPlayer() {
+        this.streamExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sound-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает файл с начала и сразу возвращается
+     *
+     * @return false, если файл не найден или не может быть воспроизведен
+     */
+    public synchronized boolean play(File soundFile) {
+        if (closed) return false;
+        if (!soundFile.isFile()) {
+            System.err.println("Звуковой файл не найден: " + soundFile);
+            return false;
+        }
+
+        try {
+            if (isCached(soundFile)) {
+                cachedClip.stop();
+                cachedClip.setFramePosition(0);
+                cachedClip.start();
+                return true;
+            }
+
+            if (fitsInClip(AudioSystem.getAudioFileFormat(soundFile))) {
+                cacheClip(soundFile);
+                cachedClip.start();
+                System.out.println("Кастомный звук загружен в память: " + soundFile.getName());
+            } else {
+                startStreaming(soundFile);
+                System.out.println("Кастомный звук воспроизводится потоком: " + soundFile.getName());
+            }
+            return true;
+
+        } catch (Exception e) {
+            System.err.println("Ошибка воспроизведения кастомного файла: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Играет ли сейчас пользовательский звук
+     */
+    public synchronized boolean isPlaying() {
+        return streaming || (cachedClip != null && cachedClip.isRunning());
+    }
+
+    /**
+     * Останавливает воспроизведение; короткий звук остается в кэше
+     */
+    public synchronized void stop() {
+        if (cachedClip != null) {
+            cachedClip.stop();
+        }
+        stopStreaming();
+    }
+
+    /**
+     * Останавливает воспроизведение и освобождает аудиолинии
+     */
+    public synchronized void close() {
+        closed = true;
+        stopStreaming();
+        releaseClip();
+        streamExecutor.shutdownNow();
+    }
+
+    private boolean isCached(File soundFile) {
+        return cachedClip != null
+            && soundFile.getAbsolutePath().equals(cachedPath)
+            && soundFile.lastModified() == cachedModified
+            && soundFile.length() == cachedLength;
+    }
+
+    private static boolean fitsInClip(AudioFileFormat fileFormat) {
+        int frames = fileFormat.getFrameLength();
+        AudioFormat format = fileFormat.getFormat();
+        if (frames == AudioSystem.NOT_SPECIFIED || format.getFrameRate() <= 0) {
+            return false; // Длина неизвестна - безопаснее читать потоком
+        }
+
+        long micros = (long) (frames / format.getFrameRate() * 1_000_000L);
+        long bytes = (long) frames * Math.max(format.getFrameSize(), 4);
+        return micros <= CLIP_MAX_MICROS && bytes <= CLIP_MAX_BYTES;
+    }
+
+    private void cacheClip(File soundFile) throws Exception {
+        releaseClip();
+        stopStreaming();
+
+        Clip clip = AudioSystem.getClip();
+        try (AudioInputStream audioStream = openPcm(soundFile)) {
+            clip.open(audioStream);
+        } catch (Exception e) {
+            clip.close();
+            throw e;
+        }
+
+        cachedClip = clip;
+        cachedPath = soundFile.getAbsolutePath();
+        cachedModified = soundFile.lastModified();
+        cachedLength = soundFile.length();
+    }
+
+    private void releaseClip() {
+        if (cachedClip != null) {
+            cachedClip.close();
+            cachedClip = null;
+            cachedPath = null;
+        }
+    }
+
+    private void startStreaming(File soundFile) {
+        stopStreaming();
+        if (cachedClip != null) {
+            cachedClip.stop();
+        }
+
+        int generation = streamGeneration;
+        streaming = true;
+        streamExecutor.execute(() -> {
+            try {
+                stream(soundFile, generation);
+            } catch (Exception e) {
+                System.err.println("Ошибка потокового воспроизведения: " + e.getMessage());
+            } finally {
+                if (generation == streamGeneration) {
+                    streaming = false;
+                }
+            }
+        });
+    }
+
+    private void stopStreaming() {
+        streamGeneration++;
+        streaming = false;
+        SourceDataLine line = streamLine;
+        if (line != null) {
+            line.stop();
+            line.flush(); // Разблокирует write() в потоке воспроизведения
+        }
+    }
+
+    /**
+     * Читает файл порциями в SourceDataLine; выполняется в потоке sound-stream
+     */
+    private void stream(File soundFile, int generation) throws Exception {
+        if (generation != streamGeneration) return;
+
+        try (AudioInputStream audioStream = openPcm(soundFile)) {
+            AudioFormat format = audioStream.getFormat();
+            SourceDataLine line = (SourceDataLine) AudioSystem.getLine(
+                new DataLine.Info(SourceDataLine.class, format));
+
+            int frameSize = Math.max(format.getFrameSize(), 1);
+            int chunk = STREAM_BUFFER_BYTES - STREAM_BUFFER_BYTES % frameSize;
+            line.open(format, chunk);
+            streamLine = line;
+            try {
+                line.start();
+                int read;
+                while (generation == streamGeneration && (read = audioStream.read(streamBuffer, 0, chunk)) > 0) {
+                    line.write(streamBuffer, 0, read);
+                }
+                if (generation == streamGeneration) {
+                    line.drain();
+                }
+            } finally {
+                streamLine = null;
+                line.close();
+            }
+        }
+    }
+
+    /**
+     * Открывает файл как PCM со знаком (сжатые форматы декодируются на лету)
+     */
+    private static AudioInputStream openPcm(File soundFile) throws Exception {
+        AudioInputStream source = AudioSystem.getAudioInputStream(soundFile);
+        AudioFormat format = source.getFormat();
+        if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED
+            || format.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED) {
+            return source;
+        }
+
+        int bits = format.getSampleSizeInBits() > 0 ? Math.max(format.getSampleSizeInBits(), 16) : 16;
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), bits,
+                                          format.getChannels(), format.getChannels() * bits / 8,
+                                          format.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(pcm, source);
+    }
+}
@@ -1,21 +1,48 @@
 package com.dayab.widget.service;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 
 import com.dayab.widget.model.CandleData;
+import com.dayab.widget.model.CandleSeries;
+import com.dayab.widget.model.FixedDecimal;
 import com.dayab.widget.model.PriceData;
+import com.dayab.widget.service.RequestScheduler.Priority;
+import com.dayab.widget.storage.CandleStore;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -25,50 +52,282 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public class GeckoTerminalApiService {
     
-    private static final String BASE_URL = "https://api.geckoterminal.com/api/v2";
+    private static final String DEFAULT_BASE_URL = "https://api.geckoterminal.com/api/v2";
     private static final String TON_NETWORK = "ton"; 
     private static final String TOKEN_ADDRESS = "EQBlWgKnh_qbFYTXfKgGAQPxkxFsArDOSr9nlARSzydpNPwA";
     
-    private final CloseableHttpClient httpClient;
+    // Simple API принимает до 30 адресов в одном запросе
+    public static final int MAX_ADDRESSES_PER_REQUEST = 30;
+    
+    // Параметры пула соединений
+    private static final int MAX_CONNECTIONS_TOTAL = 16;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 8;
+    private static final TimeValue KEEP_ALIVE = TimeValue.ofSeconds(30);
+    private static final Timeout CONNECT_TIMEOUT = Timeout.ofSeconds(10);
+    private static final Timeout RESPONSE_TIMEOUT = Timeout.ofSeconds(15);
+    
+    // Сколько свечей сверх прошедших периодов запрашивать при инкрементальном обновлении,
+    // чтобы ответ гарантированно перекрывал последнюю известную свечу
+    private static final int INCREMENTAL_OVERLAP = 2;
+    
+    // Сколько ответ эндпоинта считается свежим и отдается из кэша без запроса.
+    // Потом запрос уходит условным (If-None-Match / If-Modified-Since).
+    // Цена опрашивается каждые 5 секунд - ее TTL лишь склеивает совпавшие запросы
+    private static final long PRICE_CACHE_TTL_MILLIS = 2_000;
+    private static final long POOL_CACHE_TTL_MILLIS = 30_000;        // Ликвидность и объем пула
+    private static final long POOLS_CACHE_TTL_MILLIS = 10 * 60_000;  // Список пулов токена
+    private static final long OHLCV_CACHE_TTL_MILLIS = 10_000;
+    
+    private final String baseUrl;
+    private final CloseableHttpAsyncClient httpClient;
+    // Разбор ответов и запись свечей на диск - вне единственного потока I/O реактора,
+    // чтобы большой ответ или медленный диск не задерживали остальные запросы
+    private final ExecutorService responseExecutor;
     private final ObjectMapper objectMapper;
+    private final OhlcvStreamParser ohlcvParser;
+    private final RequestScheduler scheduler;
+    private final boolean ownsScheduler;
+    private final CandleStore candleStore;
+    private final boolean ownsCandleStore;
+    private final ResponseCache responseCache = new ResponseCache();
     
     // Кэш адреса пула для повторного использования
-    private String cachedPoolAddress = null;
+    private volatile String cachedPoolAddress = null;
+    // Текущий запрос адреса пула, чтобы параллельные вызовы не дублировали его
+    private volatile CompletableFuture<String> poolAddressRequest = null;
     
     public GeckoTerminalApiService() {
-        this.httpClient = HttpClients.createDefault();
+        this(true);
+    }
+    
+    /**
+     * @param http2Enabled разрешить согласование HTTP/2 (ALPN), иначе только HTTP/1.1
+     */
+    public GeckoTerminalApiService(boolean http2Enabled) {
+        this(DEFAULT_BASE_URL, new RequestScheduler(), true, openDefaultCandleStore(), true, http2Enabled);
+    }
+    
+    /**
+     * @param scheduler общий планировщик запросов, чтобы несколько сервисов делили один лимит
+     * @param http2Enabled разрешить согласование HTTP/2 (ALPN), иначе только HTTP/1.1
+     */
+    public GeckoTerminalApiService(RequestScheduler scheduler, boolean http2Enabled) {
+        this(DEFAULT_BASE_URL, scheduler, false, null, false, http2Enabled);
+    }
+    
+    /**
+     * @param scheduler общий планировщик запросов
+     * @param candleStore хранилище свечей на диске или null, чтобы всегда грузить историю из API
+     * @param http2Enabled разрешить согласование HTTP/2 (ALPN), иначе только HTTP/1.1
+     */
+    public GeckoTerminalApiService(RequestScheduler scheduler, CandleStore candleStore, boolean http2Enabled) {
+        this(DEFAULT_BASE_URL, scheduler, false, candleStore, false, http2Enabled);
+    }
+    
+    /**
+     * Сервис для другого адреса API (локальный сервер в тестах), только HTTP/1.1 и без хранилища свечей
+     */
+    GeckoTerminalApiService(String baseUrl, RequestScheduler scheduler) {
+        this(baseUrl, scheduler, false, null, false, false);
+    }
+    
+    private GeckoTerminalApiService(String baseUrl, RequestScheduler scheduler, boolean ownsScheduler,
+                                    CandleStore candleStore, boolean ownsCandleStore, boolean http2Enabled) {
+        this.baseUrl = baseUrl;
+        this.httpClient = createHttpClient(http2Enabled);
+        this.httpClient.start();
+        this.responseExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-response");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.objectMapper = new ObjectMapper();
+        this.ohlcvParser = new OhlcvStreamParser(objectMapper.getFactory());
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        this.candleStore = candleStore;
+        this.ownsCandleStore = ownsCandleStore;
+    }
+    
+    /**
+     * Открывает хранилище свечей по умолчанию; без него сервис работает только с API
+     */
+    private static CandleStore openDefaultCandleStore() {
+        try {
+            return CandleStore.openDefault();
+        } catch (IOException e) {
+            System.err.println("Хранилище свечей недоступно: " + e.getMessage());
+            return null;
+        }
     }
     
     /**
-     * Получает текущую цену токена асинхронно
+     * Создает неблокирующий HTTP клиент с пулом keep-alive соединений
+     */
+    private static CloseableHttpAsyncClient createHttpClient(boolean http2Enabled) {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(MAX_CONNECTIONS_TOTAL)
+            .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setSocketTimeout(RESPONSE_TIMEOUT)
+                .build())
+            .setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(http2Enabled ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+                .build())
+            .build();
+        
+        return HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setIOReactorConfig(IOReactorConfig.custom()
+                .setIoThreadCount(1)
+                .setSoTimeout(RESPONSE_TIMEOUT)
+                .build())
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setResponseTimeout(RESPONSE_TIMEOUT)
+                .build())
+            .setKeepAliveStrategy((response, context) -> KEEP_ALIVE)
+            .evictIdleConnections(KEEP_ALIVE)
+            .build();
+    }
+    
+    /**
+     * Получает текущую цену токена асинхронно.
+     * Simple API и данные пула запрашиваются параллельно, а их частичные
+     * результаты сводятся в один снимок PriceData. Ошибка одной ветки
+     * не обнуляет данные другой.
      */
     public CompletableFuture<PriceData> getTokenPrice() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Используем рекомендованный эндпоинт для цены с тенденцией за 24h
-                String priceUrl = BASE_URL + "/simple/networks/" + TON_NETWORK + "/token_price/" + TOKEN_ADDRESS + "?include_24hr_price_change=true";
-                System.out.println("Запрашиваем цену токена: " + priceUrl);
-                
-                String priceResponse = makeHttpRequest(priceUrl);
-                
-                if (priceResponse == null) {
-                    return createErrorPriceData("Ошибка получения данных цены");
+        CompletableFuture<PriceQuote> quoteFuture = fetchPriceQuote()
+            .exceptionally(e -> {
+                System.err.println("Ошибка запроса цены: " + e.getMessage());
+                return null;
+            });
+        
+        // Simple API не всегда возвращает тенденцию, поэтому параллельно берем данные пула
+        CompletableFuture<PoolSnapshot> poolFuture = fetchPoolSnapshot()
+            .exceptionally(e -> {
+                System.err.println("Ошибка запроса данных пула: " + e.getMessage());
+                return null;
+            });
+        
+        return quoteFuture.thenCombine(poolFuture, this::mergePriceSnapshot);
+    }
+    
+    /**
+     * Запрашивает цену и изменение за 24h через Simple API
+     */
+    private CompletableFuture<PriceQuote> fetchPriceQuote() {
+        // Используем рекомендованный эндпоинт для цены с тенденцией за 24h
+        String priceUrl = baseUrl + "/simple/networks/" + TON_NETWORK + "/token_price/" + TOKEN_ADDRESS + "?include_24hr_price_change=true";
+        System.out.println("Запрашиваем цену токена: " + priceUrl);
+        
+        return makeCachedRequestAsync(priceUrl, Priority.PRICE, PRICE_CACHE_TTL_MILLIS, response -> {
+            String priceResponse = response.getBodyText();
+            System.out.println("Ответ цены получен, длина: " + priceResponse.length());
+            
+            return parseSimplePriceData(priceResponse);
+        }).thenApply(quote -> {
+            if (quote == null) {
+                System.err.println("Ошибка получения данных цены");
+            }
+            return quote;
+        });
+    }
+    
+    /**
+     * Запрашивает тенденцию, ликвидность и объем из pools API
+     */
+    private CompletableFuture<PoolSnapshot> fetchPoolSnapshot() {
+        return getPoolAddress()
+            .thenCompose(poolAddress -> {
+                if (poolAddress == null) {
+                    System.err.println("Не удалось получить адрес пула для дополнительных данных");
+                    return CompletableFuture.completedFuture(null);
                 }
                 
-                System.out.println("Ответ цены получен, длина: " + priceResponse.length());
-                
-                PriceData priceData = parseSimplePriceData(priceResponse);
-                
-                // Дополнительно получаем тенденцию из pools API, так как Simple API не всегда её возвращает
-                enrichWithPoolTrendData(priceData);
-                
-                return priceData;
+                String poolUrl = baseUrl + "/networks/" + TON_NETWORK + "/pools/" + poolAddress;
+                return makeCachedRequestAsync(poolUrl, Priority.POOL, POOL_CACHE_TTL_MILLIS,
+                                              response -> parsePoolSnapshot(response.getBodyText()));
+            });
+    }
+    
+    /**
+     * Сводит частичные результаты веток в один снимок PriceData
+     */
+    private PriceData mergePriceSnapshot(PriceQuote quote, PoolSnapshot pool) {
+        FixedDecimal price = quote != null ? quote.price : null;
+        if (price == null && pool != null) {
+            // Simple API недоступен - берем цену токена из данных пула
+            price = pool.tokenPrice;
+        }
+        
+        if (price == null) {
+            return createErrorPriceData("Ошибка получения данных цены");
+        }
+        
+        PriceData priceData = new PriceData();
+        priceData.setCurrentPriceFixed(price);
+        
+        // Тенденция из пула точнее, Simple API используем как запасной вариант
+        FixedDecimal change24h = pool != null && pool.priceChangePercent24h != null
+            ? pool.priceChangePercent24h
+            : (quote != null ? quote.priceChangePercent24h : null);
+        priceData.setPriceChangePercent24hFixed(change24h);
+        
+        if (pool != null) {
+            priceData.setLiquidityUsdFixed(pool.liquidityUsd);
+            priceData.setVolumeUsd24hFixed(pool.volumeUsd24h);
+        }
+        
+        // Устанавливаем символ токена
+        priceData.setSymbol("GOVNO");
+        priceData.setTimestamp(LocalDateTime.now());
+        
+        return priceData;
+    }
+    
+    /**
+     * Получает цены нескольких токенов одной сети одним запросом к Simple API.
+     * Данные пула (ликвидность, объем) в пакетном режиме не запрашиваются.
+     *
+     * @param addresses не более MAX_ADDRESSES_PER_REQUEST адресов
+     * @return цены по адресам из запроса в нижнем регистре (API может менять регистр адресов);
+     *         токены, которых нет в ответе, пропускаются
+     */
+    public CompletableFuture<Map<String, PriceData>> getTokenPrices(String network, List<String> addresses) {
+        if (addresses.size() > MAX_ADDRESSES_PER_REQUEST) {
+            throw new IllegalArgumentException("Не более " + MAX_ADDRESSES_PER_REQUEST + " адресов в запросе: " + addresses.size());
+        }
+        if (addresses.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        
+        String priceUrl = baseUrl + "/simple/networks/" + network + "/token_price/" + String.join(",", addresses) + 
+                         "?include_24hr_price_change=true";
+        System.out.println("Запрашиваем цены " + addresses.size() + " токенов: " + priceUrl);
+        
+        return makeCachedRequestAsync(priceUrl, Priority.PRICE, PRICE_CACHE_TTL_MILLIS,
+                                      response -> parseSimplePrices(response.getBodyText())).thenApply(quotes -> {
+            Map<String, PriceData> result = new HashMap<>();
+            if (quotes == null) {
+                System.err.println("Ошибка получения цен токенов сети " + network);
+                return result;
+            }
+            
+            LocalDateTime now = LocalDateTime.now();
+            for (String address : addresses) {
+                String key = address.toLowerCase(Locale.ROOT);
+                PriceQuote quote = quotes.get(key);
+                if (quote == null || quote.price == null) continue;
                 
-            } catch (Exception e) {
-                System.err.println("Ошибка API запроса: " + e.getMessage());
-                return createErrorPriceData("Ошибка: " + e.getMessage());
+                PriceData priceData = new PriceData();
+                priceData.setCurrentPriceFixed(quote.price);
+                priceData.setPriceChangePercent24hFixed(quote.priceChangePercent24h);
+                priceData.setTimestamp(now);
+                result.put(key, priceData);
             }
+            return result;
         });
     }
     
@@ -76,52 +335,208 @@ public class GeckoTerminalApiService {
      * Получает OHLCV данные для свечного графика
      */
     public CompletableFuture<List<CandleData>> getCandleData(String timeframe, int aggregate, int limit) {
+        return getCandleSeries(timeframe, aggregate, limit)
+            .thenApply(series -> new ArrayList<>(series.asCandleDataList()));
+    }
+    
+    /**
+     * Получает OHLCV данные в колоночном виде, упорядоченные по времени
+     */
+    public CompletableFuture<CandleSeries> getCandleSeries(String timeframe, int aggregate, int limit) {
+        if (candleStore == null) {
+            return fetchCandleSeries(timeframe, aggregate, limit);
+        }
+        
+        // Есть сохраненная история - из API догружаем только хвост
+        return getPoolAddress()
+            .thenCompose(poolAddress -> {
+                CandleSeries stored = poolAddress != null
+                    ? loadStoredCandles(poolAddress, timeframe, aggregate, limit)
+                    : new CandleSeries(0);
+                if (stored.isEmpty()) {
+                    return fetchCandleSeries(timeframe, aggregate, limit);
+                }
+                
+                int tailLimit = incrementalLimit(timeframe, aggregate, stored.getLastTime(), limit);
+                return fetchCandleSeries(timeframe, aggregate, tailLimit)
+                    .thenCompose(update -> {
+                        if (!stored.merge(update)) {
+                            return fetchCandleSeries(timeframe, aggregate, limit);
+                        }
+                        stored.trimToLast(limit);
+                        return CompletableFuture.completedFuture(stored);
+                    });
+            });
+    }
+    
+    /**
+     * Читает сохраненные на диске свечи без запроса к API, чтобы показать график сразу.
+     * Без хранилища или известного адреса пула возвращает пустой ряд.
+     */
+    public CompletableFuture<CandleSeries> getStoredCandleSeries(String timeframe, int aggregate, int limit) {
+        if (candleStore == null) {
+            return CompletableFuture.completedFuture(new CandleSeries(0));
+        }
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Получаем адрес пула если не кэширован
-                if (cachedPoolAddress == null) {
-                    cachedPoolAddress = getTopPoolAddress();
-                    if (cachedPoolAddress == null) {
-                        System.err.println("Не удалось получить адрес пула");
-                        return new ArrayList<>();
-                    }
+            String poolAddress = cachedPoolAddress != null
+                ? cachedPoolAddress
+                : candleStore.loadPoolAddress(TOKEN_ADDRESS);
+            if (poolAddress == null) {
+                return new CandleSeries(0);
+            }
+            return loadStoredCandles(poolAddress, timeframe, aggregate, limit);
+        });
+    }
+    
+    /**
+     * Получает только свечи, начиная с последней известной (она могла еще не закрыться).
+     * API отдает свечи от новых к старым, поэтому достаточно запросить столько свечей,
+     * сколько периодов прошло с lastTime, плюс запас на перекрытие.
+     * Если прошло больше limit периодов, запрашивается полный ряд.
+     *
+     * @param lastTime время последней известной свечи в секундах эпохи
+     * @param limit размер полного ряда
+     */
+    public CompletableFuture<CandleSeries> getCandleSeriesSince(String timeframe, int aggregate, long lastTime, int limit) {
+        return fetchCandleSeries(timeframe, aggregate, incrementalLimit(timeframe, aggregate, lastTime, limit));
+    }
+    
+    /**
+     * Сколько последних свечей запросить, чтобы покрыть время с lastTime
+     */
+    private static int incrementalLimit(String timeframe, int aggregate, long lastTime, int limit) {
+        long period = getPeriodSeconds(timeframe, aggregate);
+        long elapsed = Math.max(0, Instant.now().getEpochSecond() - lastTime);
+        long missing = elapsed / period + INCREMENTAL_OVERLAP;
+        return missing >= limit ? limit : (int) missing;
+    }
+    
+    /**
+     * Длительность одной свечи в секундах
+     */
+    public static long getPeriodSeconds(String timeframe, int aggregate) {
+        long unit;
+        switch (timeframe) {
+            case "minute": unit = 60; break;
+            case "hour": unit = 3_600; break;
+            case "day": unit = 86_400; break;
+            default: throw new IllegalArgumentException("Неизвестный интервал: " + timeframe);
+        }
+        return unit * Math.max(aggregate, 1);
+    }
+    
+    private CompletableFuture<CandleSeries> fetchCandleSeries(String timeframe, int aggregate, int limit) {
+        return getPoolAddress()
+            .thenCompose(poolAddress -> {
+                if (poolAddress == null) {
+                    System.err.println("Не удалось получить адрес пула");
+                    return CompletableFuture.completedFuture(null);
                 }
                 
                 // Формируем правильный URL для OHLCV
-                String ohlcvUrl = BASE_URL + "/networks/" + TON_NETWORK + "/pools/" + cachedPoolAddress + 
+                String ohlcvUrl = baseUrl + "/networks/" + TON_NETWORK + "/pools/" + poolAddress + 
                                  "/ohlcv/" + timeframe + "?aggregate=" + aggregate + "&limit=" + limit;
                 
                 System.out.println("Запрашиваем OHLCV данные: " + ohlcvUrl);
                 
-                String ohlcvResponse = makeHttpRequest(ohlcvUrl);
-                
-                if (ohlcvResponse == null) {
-                    System.err.println("Ошибка получения OHLCV данных - пустой ответ");
-                    return new ArrayList<>();
-                }
-                
-                System.out.println("OHLCV ответ получен, длина: " + ohlcvResponse.length());
-                
-                return parseOhlcvData(ohlcvResponse);
-                
-            } catch (Exception e) {
+                return makeCachedRequestAsync(ohlcvUrl, Priority.OHLCV, OHLCV_CACHE_TTL_MILLIS, response -> {
+                        byte[] ohlcvResponse = response.getBodyBytes();
+                        System.out.println("OHLCV ответ получен, длина: " + ohlcvResponse.length);
+                        
+                        // Пустой ряд (в том числе ошибка разбора) не кэшируем
+                        CandleSeries series = parseOhlcvData(ohlcvResponse, limit);
+                        storeCandles(poolAddress, timeframe, aggregate, series);
+                        return series.isEmpty() ? null : series;
+                    })
+                    .thenApply(series -> {
+                        if (series == null) {
+                            System.err.println("Ошибка получения OHLCV данных - пустой ответ");
+                            return new CandleSeries(0);
+                        }
+                        // Ряд из кэша общий, а вызывающий код дополняет и обрезает свой
+                        return series.copy();
+                    });
+            })
+            .exceptionally(e -> {
                 System.err.println("Ошибка получения OHLCV данных: " + e.getMessage());
                 e.printStackTrace();
-                return new ArrayList<>();
+                return new CandleSeries(0);
+            });
+    }
+    
+    /**
+     * Читает из хранилища свечи, попадающие в окно из limit последних периодов
+     */
+    private CandleSeries loadStoredCandles(String poolAddress, String timeframe, int aggregate, int limit) {
+        long sinceTime = Instant.now().getEpochSecond() - getPeriodSeconds(timeframe, aggregate) * limit;
+        try {
+            CandleSeries stored = candleStore.load(poolAddress, timeframe, aggregate, sinceTime);
+            stored.trimToLast(limit);
+            return stored;
+        } catch (IOException e) {
+            System.err.println("Ошибка чтения свечей с диска: " + e.getMessage());
+            return new CandleSeries(0);
+        }
+    }
+    
+    private void storeCandles(String poolAddress, String timeframe, int aggregate, CandleSeries series) {
+        if (candleStore == null || series.isEmpty()) return;
+        try {
+            candleStore.append(poolAddress, timeframe, aggregate, series);
+        } catch (IOException e) {
+            System.err.println("Ошибка записи свечей на диск: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Возвращает адрес пула из кэша или запрашивает его один раз для всех ожидающих
+     */
+    private CompletableFuture<String> getPoolAddress() {
+        String poolAddress = cachedPoolAddress;
+        if (poolAddress != null) {
+            return CompletableFuture.completedFuture(poolAddress);
+        }
+        
+        synchronized (this) {
+            CompletableFuture<String> request = poolAddressRequest;
+            if (request == null) {
+                request = getTopPoolAddress();
+                poolAddressRequest = request;
+                request.whenComplete((address, error) -> {
+                    cachedPoolAddress = address;
+                    if (address != null && candleStore != null) {
+                        candleStore.savePoolAddress(TOKEN_ADDRESS, address);
+                    }
+                    // При неудаче позволяем повторить запрос на следующем тике
+                    poolAddressRequest = null;
+                });
             }
-        });
+            return request;
+        }
     }
     
     /**
      * Получает адрес топового пула для токена
      */
-    private String getTopPoolAddress() {
+    private CompletableFuture<String> getTopPoolAddress() {
+        String poolsUrl = baseUrl + "/networks/" + TON_NETWORK + "/tokens/" + TOKEN_ADDRESS + "/pools";
+        System.out.println("Запрашиваем пулы: " + poolsUrl);
+        
+        return makeCachedRequestAsync(poolsUrl, Priority.POOL, POOLS_CACHE_TTL_MILLIS,
+                                      response -> parseTopPoolAddress(response.getBodyText()))
+            .thenApply(poolAddress -> {
+                if (poolAddress == null) {
+                    System.err.println("Пустой ответ при получении пулов");
+                }
+                return poolAddress;
+            });
+    }
+    
+    /**
+     * Извлекает адрес топового пула из ответа pools API
+     */
+    private String parseTopPoolAddress(String poolsResponse) {
         try {
-            String poolsUrl = BASE_URL + "/networks/" + TON_NETWORK + "/tokens/" + TOKEN_ADDRESS + "/pools";
-            System.out.println("Запрашиваем пулы: " + poolsUrl);
-            
-            String poolsResponse = makeHttpRequest(poolsUrl);
-            
             if (poolsResponse == null) {
                 System.err.println("Пустой ответ при получении пулов");
                 return null;
@@ -173,135 +588,229 @@ public class GeckoTerminalApiService {
     }
     
     /**
-     * Парсит OHLCV данные из JSON ответа
+     * Парсит OHLCV данные из тела ответа потоковым парсером
+     * (доступ в пакете - для бенчмарков на записанных ответах)
      */
-    private List<CandleData> parseOhlcvData(String jsonResponse) {
-        List<CandleData> candleList = new ArrayList<>();
-        
+    CandleSeries parseOhlcvData(byte[] body, int expectedCandles) {
         try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            JsonNode data = root.get("data");
-            
-            if (data == null) {
-                return candleList;
+            CandleSeries series = ohlcvParser.parse(body, expectedCandles);
+            System.out.println("Получено " + series.size() + " свечей");
+            return series;
+        } catch (Exception e) {
+            System.err.println("Ошибка парсинга OHLCV JSON: " + e.getMessage());
+            return new CandleSeries(0);
+        }
+    }
+    
+    /**
+     * Выполняет HTTP запрос через кэш ответов без блокировки потока.
+     * Свежая запись отдается сразу, без запроса. Устаревшая перепроверяется
+     * условным запросом и на 304 переиспользуется; parser разбирает тело
+     * только ответа 200 в потоке responseExecutor. Возвращает разобранный результат
+     * или null при ошибке.
+     *
+     * @param ttlMillis сколько ответ считается свежим; 0 - перепроверять при каждом вызове
+     * @param parser разбор ответа 200; null не кэшируется
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> makeCachedRequestAsync(String url, Priority priority, long ttlMillis,
+                                                            Function<SimpleHttpResponse, T> parser) {
+        ResponseCache.Entry cached = responseCache.get(url);
+        if (cached != null && cached.isFresh()) {
+            responseCache.recordHit();
+            return CompletableFuture.completedFuture((T) cached.value);
+        }
+        
+        return executeAsync(url, priority, cached).handleAsync((response, error) -> {
+            if (error == null && cached != null && response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+                responseCache.recordRevalidation();
+                responseCache.revalidate(url, cached, response, ttlMillis);
+                return (T) cached.value;
             }
-            
-            JsonNode ohlcvArray = data.get("attributes").get("ohlcv_list");
-            if (ohlcvArray == null || !ohlcvArray.isArray()) {
-                return candleList;
+            if (!isSuccessful(response, error)) {
+                return null;
             }
             
-            for (JsonNode ohlcvItem : ohlcvArray) {
-                if (ohlcvItem.isArray() && ohlcvItem.size() >= 6) {
-                    try {
-                        // Формат: [timestamp, open, high, low, close, volume]
-                        long timestamp = ohlcvItem.get(0).asLong();
-                        BigDecimal open = new BigDecimal(ohlcvItem.get(1).asText());
-                        BigDecimal high = new BigDecimal(ohlcvItem.get(2).asText());
-                        BigDecimal low = new BigDecimal(ohlcvItem.get(3).asText());
-                        BigDecimal close = new BigDecimal(ohlcvItem.get(4).asText());
-                        BigDecimal volume = new BigDecimal(ohlcvItem.get(5).asText());
-                        
-                        LocalDateTime dateTime = LocalDateTime.ofInstant(
-                            Instant.ofEpochSecond(timestamp), ZoneId.systemDefault());
-                        
-                        CandleData candle = new CandleData(dateTime, open, high, low, close, volume);
-                        candleList.add(candle);
-                        
-                    } catch (Exception e) {
-                        System.err.println("Ошибка парсинга свечи: " + e.getMessage());
-                    }
-                }
+            responseCache.recordMiss();
+            T value = parser.apply(response);
+            if (value != null) {
+                responseCache.store(url, response, value, ttlMillis);
+            } else {
+                responseCache.remove(url);
             }
-            
-            System.out.println("Получено " + candleList.size() + " свечей");
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка парсинга OHLCV JSON: " + e.getMessage());
+            return value;
+        }, responseExecutor);
+    }
+    
+    /**
+     * Счетчики кэша ответов: попадания, перепроверки (304) и загрузки
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+    
+    /**
+     * Проверяет результат запроса и логирует ошибки
+     */
+    private boolean isSuccessful(SimpleHttpResponse response, Throwable error) {
+        if (error != null) {
+            System.err.println("HTTP Request Error: " + error.getMessage());
+            return false;
         }
         
-        return candleList;
+        if (response.getCode() == 200) {
+            return true;
+        } else {
+            System.err.println("HTTP Error: " + response.getCode() + " - " + response.getBodyText());
+            return false;
+        }
     }
     
     /**
-     * Выполняет HTTP запрос
+     * Ставит GET запрос в очередь планировщика с учетом лимита API
      */
-    private String makeHttpRequest(String url) {
+    private CompletableFuture<SimpleHttpResponse> executeAsync(String url, Priority priority, ResponseCache.Entry cached) {
+        return scheduler.submit(priority, url, () -> sendAsync(url, cached))
+            .thenApply(response -> {
+                if (response.getCode() == HttpStatus.SC_TOO_MANY_REQUESTS) {
+                    scheduler.onRateLimited(parseRetryAfterMillis(response.getFirstHeader(HttpHeaders.RETRY_AFTER)));
+                } else if (response.getCode() < HttpStatus.SC_SERVER_ERROR) {
+                    scheduler.onSuccess();
+                }
+                return response;
+            });
+    }
+    
+    /**
+     * Переводит заголовок Retry-After (секунды или HTTP-дата) в миллисекунды.
+     * Возвращает -1, если заголовка нет или он некорректен.
+     */
+    private static long parseRetryAfterMillis(Header retryAfter) {
+        if (retryAfter == null || retryAfter.getValue() == null) {
+            return -1;
+        }
+        
+        String value = retryAfter.getValue().trim();
         try {
-            HttpGet request = new HttpGet(url);
-            request.setHeader("Accept", "application/json");
-            
-            ClassicHttpResponse response = httpClient.execute(request);
-            String responseBody = EntityUtils.toString(response.getEntity());
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            Instant date = DateUtils.parseStandardDate(value);
+            if (date == null) {
+                return -1;
+            }
+            return Math.max(0, date.toEpochMilli() - System.currentTimeMillis());
+        }
+    }
+    
+    /**
+     * Отправляет GET запрос через асинхронный клиент и возвращает полный ответ.
+     * С записью кэша запрос условный: сервер ответит 304 без тела, если данные не менялись.
+     */
+    private CompletableFuture<SimpleHttpResponse> sendAsync(String url, ResponseCache.Entry cached) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.get(url)
+            .addHeader("Accept", "application/json");
+        if (cached != null && cached.etag != null) {
+            builder.addHeader(HttpHeaders.IF_NONE_MATCH, cached.etag);
+        }
+        if (cached != null && cached.lastModified != null) {
+            builder.addHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+        }
+        SimpleHttpRequest request = builder.build();
+        
+        CompletableFuture<SimpleHttpResponse> future = new CompletableFuture<>();
+        httpClient.execute(request, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                future.complete(response);
+            }
             
-            if (response.getCode() == 200) {
-                return responseBody;
-            } else {
-                System.err.println("HTTP Error: " + response.getCode() + " - " + responseBody);
-                return null;
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e);
             }
             
-        } catch (Exception e) {
-            System.err.println("HTTP Request Error: " + e.getMessage());
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * Парсит данные цены из Simple API ответа
+     * (доступ в пакете - для бенчмарков на записанных ответах)
+     */
+    PriceQuote parseSimplePriceData(String jsonResponse) {
+        Map<String, PriceQuote> quotes = parseSimplePrices(jsonResponse);
+        if (quotes == null || quotes.isEmpty()) {
             return null;
         }
+        
+        // Ответ на запрос одного токена - если ключ не совпал, берем единственную запись
+        PriceQuote quote = quotes.get(TOKEN_ADDRESS.toLowerCase(Locale.ROOT));
+        if (quote == null) {
+            quote = quotes.values().iterator().next();
+        }
+        
+        if (quote.price != null) {
+            System.out.println("Цена токена: $" + quote.price);
+        }
+        if (quote.priceChangePercent24h != null) {
+            System.out.println("Изменение за 24h: " + quote.priceChangePercent24h + "%");
+        }
+        return quote;
     }
     
     /**
-     * Парсит данные цены из Simple API ответа
+     * Парсит ответ Simple API с одним или несколькими токенами.
+     * Ключ - адрес токена в нижнем регистре (API может менять регистр адресов).
      */
-    private PriceData parseSimplePriceData(String jsonResponse) {
+    private Map<String, PriceQuote> parseSimplePrices(String jsonResponse) {
         try {
             JsonNode root = objectMapper.readTree(jsonResponse);
             JsonNode data = root.get("data");
             
             if (data == null) {
-                return createErrorPriceData("Неверный формат ответа Simple API");
+                System.err.println("Неверный формат ответа Simple API");
+                return null;
             }
             
             JsonNode attributes = data.get("attributes");
             if (attributes == null) {
-                return createErrorPriceData("Отсутствуют атрибуты в Simple API");
+                System.err.println("Отсутствуют атрибуты в Simple API");
+                return null;
             }
             
-            PriceData priceData = new PriceData();
+            Map<String, PriceQuote> quotes = new LinkedHashMap<>();
+            JsonNode prices = attributes.path("token_prices");
+            JsonNode changes = attributes.path("token_price_percent_changes");
             
-            // Текущая цена в USD
-            JsonNode priceUsd = attributes.get("token_prices");
-            if (priceUsd != null && priceUsd.isObject()) {
-                // Берем первый (и единственный) токен из объекта
-                JsonNode tokenPrice = priceUsd.fields().next().getValue();
-                if (tokenPrice != null && !tokenPrice.isNull()) {
-                    priceData.setCurrentPrice(new BigDecimal(tokenPrice.asText()));
-                    System.out.println("Цена токена: $" + tokenPrice.asText());
-                }
-            }
-            
-            // Изменение цены за 24h в процентах
-            JsonNode priceChange24h = attributes.get("token_price_percent_changes");
-            if (priceChange24h != null && priceChange24h.isObject()) {
-                // Берем первый токен из объекта
-                JsonNode tokenChange = priceChange24h.fields().next().getValue();
-                if (tokenChange != null && tokenChange.has("24h")) {
-                    JsonNode change24h = tokenChange.get("24h");
-                    if (change24h != null && !change24h.isNull()) {
-                        BigDecimal changePercent = new BigDecimal(change24h.asText());
-                        priceData.setPriceChangePercent24h(changePercent);
-                        System.out.println("Изменение за 24h: " + changePercent + "%");
-                    }
+            Iterator<Map.Entry<String, JsonNode>> fields = prices.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode tokenPrice = field.getValue();
+                
+                // Текущая цена в USD
+                FixedDecimal price = tokenPrice != null && !tokenPrice.isNull()
+                    ? FixedDecimal.parse(tokenPrice.asText())
+                    : null;
+                
+                // Изменение цены за 24h в процентах
+                FixedDecimal changePercent = null;
+                JsonNode change24h = changes.path(field.getKey()).path("24h");
+                if (!change24h.isMissingNode() && !change24h.isNull()) {
+                    changePercent = FixedDecimal.parse(change24h.asText());
                 }
+                
+                quotes.put(field.getKey().toLowerCase(Locale.ROOT), new PriceQuote(price, changePercent));
             }
-            
-            // Устанавливаем символ токена
-            priceData.setSymbol("GOVNO");
-            priceData.setTimestamp(LocalDateTime.now());
-            
-            return priceData;
+            return quotes;
             
         } catch (Exception e) {
             System.err.println("Ошибка парсинга Simple API JSON: " + e.getMessage());
             e.printStackTrace();
-            return createErrorPriceData("Ошибка парсинга данных Simple API");
+            return null;
         }
     }
     
@@ -310,8 +819,8 @@ public class GeckoTerminalApiService {
      */
     private PriceData createErrorPriceData(String error) {
         PriceData errorData = new PriceData();
-        errorData.setSymbol("ERROR");
-        errorData.setCurrentPrice(BigDecimal.ZERO);
+        errorData.setSymbol(PriceData.ERROR_SYMBOL);
+        errorData.setCurrentPriceFixed(FixedDecimal.ZERO);
         errorData.setTimestamp(LocalDateTime.now());
         System.err.println("GeckoTerminal API Error: " + error);
         return errorData;
@@ -321,82 +830,142 @@ public class GeckoTerminalApiService {
      * Закрывает HTTP клиент
      */
     public void close() {
+        System.out.println("Кэш ответов API - " + responseCache);
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+        responseExecutor.shutdown();
+        try {
+            responseExecutor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsCandleStore && candleStore != null) {
+            candleStore.close();
+        }
         try {
-            httpClient.close();
+            httpClient.close(CloseMode.GRACEFUL);
+            httpClient.awaitShutdown(TimeValue.of(2, TimeUnit.SECONDS));
         } catch (Exception e) {
             System.err.println("Ошибка закрытия HTTP клиента: " + e.getMessage());
         }
     }
     
     /**
-     * Дополнительно получает данные о тенденции, ликвидности и объеме из pools API
+     * Парсит тенденцию, ликвидность, объем и цену токена из ответа pools API
      */
-    private void enrichWithPoolTrendData(PriceData priceData) {
+    private PoolSnapshot parsePoolSnapshot(String poolResponse) {
         try {
-            // Получаем адрес пула если не кэширован
-            if (cachedPoolAddress == null) {
-                cachedPoolAddress = getTopPoolAddress();
-                if (cachedPoolAddress == null) {
-                    System.err.println("Не удалось получить адрес пула для дополнительных данных");
-                    return;
-                }
-            }
-            
-            String poolUrl = BASE_URL + "/networks/" + TON_NETWORK + "/pools/" + cachedPoolAddress;
-            String poolResponse = makeHttpRequest(poolUrl);
-            
             if (poolResponse == null) {
                 System.err.println("Не удалось получить данные пула");
-                return;
+                return null;
             }
             
             JsonNode poolData = objectMapper.readTree(poolResponse);
             JsonNode data = poolData.get("data");
             
-            if (data != null && data.has("attributes")) {
-                JsonNode attributes = data.get("attributes");
-                
-                // Получаем тенденцию за 24 часа
-                if (attributes.has("price_change_percentage") && 
-                    attributes.get("price_change_percentage").has("h24")) {
-                    String changePercent = attributes.get("price_change_percentage").get("h24").asText();
-                    try {
-                        BigDecimal change24h = new BigDecimal(changePercent);
-                        priceData.setPriceChangePercent24h(change24h);
-                        System.out.println("Получена тенденция из пула: " + change24h + "%");
-                    } catch (NumberFormatException e) {
-                        System.err.println("Ошибка парсинга тенденции: " + changePercent);
-                    }
+            if (data == null || !data.has("attributes")) {
+                return null;
+            }
+            
+            JsonNode attributes = data.get("attributes");
+            
+            // Получаем тенденцию за 24 часа
+            FixedDecimal change24h = null;
+            if (attributes.has("price_change_percentage")) {
+                change24h = parseDecimal(attributes.get("price_change_percentage").get("h24"), "тенденции");
+                if (change24h != null) {
+                    System.out.println("Получена тенденция из пула: " + change24h + "%");
                 }
-                
-                // Получаем ликвидность
-                if (attributes.has("reserve_in_usd")) {
-                    String liquidityStr = attributes.get("reserve_in_usd").asText();
-                    try {
-                        BigDecimal liquidity = new BigDecimal(liquidityStr);
-                        priceData.setLiquidityUsd(liquidity);
-                        System.out.println("Получена ликвидность: $" + liquidity);
-                    } catch (NumberFormatException e) {
-                        System.err.println("Ошибка парсинга ликвидности: " + liquidityStr);
-                    }
+            }
+            
+            // Получаем ликвидность
+            FixedDecimal liquidity = parseDecimal(attributes.get("reserve_in_usd"), "ликвидности");
+            if (liquidity != null) {
+                System.out.println("Получена ликвидность: $" + liquidity);
+            }
+            
+            // Получаем объем торгов за 24 часа
+            FixedDecimal volume24h = null;
+            if (attributes.has("volume_usd")) {
+                volume24h = parseDecimal(attributes.get("volume_usd").get("h24"), "объема");
+                if (volume24h != null) {
+                    System.out.println("Получен объем за 24ч: $" + volume24h);
                 }
-                
-                // Получаем объем торгов за 24 часа
-                if (attributes.has("volume_usd") && 
-                    attributes.get("volume_usd").has("h24")) {
-                    String volumeStr = attributes.get("volume_usd").get("h24").asText();
-                    try {
-                        BigDecimal volume24h = new BigDecimal(volumeStr);
-                        priceData.setVolumeUsd24h(volume24h);
-                        System.out.println("Получен объем за 24ч: $" + volume24h);
-                    } catch (NumberFormatException e) {
-                        System.err.println("Ошибка парсинга объема: " + volumeStr);
-                    }
+            }
+            
+            // Цена нашего токена - базового или котируемого в паре
+            FixedDecimal tokenPrice = null;
+            JsonNode relationships = data.get("relationships");
+            if (relationships != null) {
+                if (isOurToken(relationships.path("base_token"))) {
+                    tokenPrice = parseDecimal(attributes.get("base_token_price_usd"), "цены токена");
+                } else if (isOurToken(relationships.path("quote_token"))) {
+                    tokenPrice = parseDecimal(attributes.get("quote_token_price_usd"), "цены токена");
                 }
             }
             
+            return new PoolSnapshot(tokenPrice, change24h, liquidity, volume24h);
+            
         } catch (Exception e) {
             System.err.println("Ошибка получения дополнительных данных пула: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Проверяет, что связь токена пула указывает на отслеживаемый токен
+     */
+    private boolean isOurToken(JsonNode tokenRelationship) {
+        String tokenId = tokenRelationship.path("data").path("id").asText("");
+        return tokenId.endsWith("_" + TOKEN_ADDRESS);
+    }
+    
+    /**
+     * Разбирает числовое поле ответа, возвращает null если поля нет или оно некорректно
+     */
+    private FixedDecimal parseDecimal(JsonNode node, String fieldName) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        
+        String value = node.asText();
+        try {
+            return FixedDecimal.parse(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Ошибка парсинга " + fieldName + ": " + value);
+            return null;
+        }
+    }
+    
+    /**
+     * Частичный результат Simple API: цена и изменение за 24h
+     */
+    static final class PriceQuote {
+        final FixedDecimal price;
+        final FixedDecimal priceChangePercent24h;
+        
+        PriceQuote(FixedDecimal price, FixedDecimal priceChangePercent24h) {
+            this.price = price;
+            this.priceChangePercent24h = priceChangePercent24h;
+        }
+    }
+    
+    /**
+     * Частичный результат pools API: цена токена, тенденция, ликвидность и объем
+     */
+    private static final class PoolSnapshot {
+        final FixedDecimal tokenPrice;
+        final FixedDecimal priceChangePercent24h;
+        final FixedDecimal liquidityUsd;
+        final FixedDecimal volumeUsd24h;
+        
+        PoolSnapshot(FixedDecimal tokenPrice, FixedDecimal priceChangePercent24h,
+                     FixedDecimal liquidityUsd, FixedDecimal volumeUsd24h) {
+            this.tokenPrice = tokenPrice;
+            this.priceChangePercent24h = priceChangePercent24h;
+            this.liquidityUsd = liquidityUsd;
+            this.volumeUsd24h = volumeUsd24h;
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.dayab.widget.service;
+
+import java.io.IOException;
+
+import com.dayab.widget.model.CandleSeries;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Потоковый разбор OHLCV ответа GeckoTerminal
+ * Читает data.attributes.ohlcv_list токен за токеном, не строя дерево JsonNode
+ * и не создавая промежуточных строк для чисел. Свечи пишутся прямо
+ * в колонки CandleSeries, выделенные под limit запроса.
+ */
+final class OhlcvStreamParser {
+
+    private final JsonFactory jsonFactory;
+
+    OhlcvStreamParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Разбирает тело ответа в ряд свечей, упорядоченный по времени
+     *
+     * @param body тело ответа OHLCV эндпоинта
+     * @param expectedCandles ожидаемое число свечей (limit запроса) для предвыделения буфера
+     */
+    CandleSeries parse(byte[] body, int expectedCandles) throws IOException {
+        CandleSeries series = new CandleSeries(expectedCandles);
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                || !moveToObjectField(parser, "data")
+                || !moveToObjectField(parser, "attributes")
+                || !moveToField(parser, "ohlcv_list")
+                || parser.currentToken() != JsonToken.START_ARRAY) {
+                return series;
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                readCandle(parser, series);
+            }
+        }
+
+        // GeckoTerminal отдает свечи от новых к старым
+        series.sortByTime();
+        return series;
+    }
+
+    /**
+     * Читает одну свечу формата [timestamp, open, high, low, close, volume] и добавляет в ряд.
+     * Парсер стоит на START_ARRAY свечи, после выхода - на ее END_ARRAY.
+     */
+    private void readCandle(JsonParser parser, CandleSeries series) throws IOException {
+        long timestamp = 0;
+        double open = Double.NaN, high = Double.NaN, low = Double.NaN, close = Double.NaN, volume = Double.NaN;
+        boolean valid = true;
+        int index = 0;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                index++;
+                continue;
+            }
+
+            try {
+                switch (index) {
+                    case 0: timestamp = parser.getValueAsLong(); break;
+                    case 1: open = readDouble(parser, token); break;
+                    case 2: high = readDouble(parser, token); break;
+                    case 3: low = readDouble(parser, token); break;
+                    case 4: close = readDouble(parser, token); break;
+                    case 5: volume = readDouble(parser, token); break;
+                    default: break;
+                }
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("Ошибка парсинга свечи: " + e.getMessage());
+                valid = false;
+            }
+            index++;
+        }
+
+        if (!valid || Double.isNaN(open) || Double.isNaN(high) || Double.isNaN(low)
+            || Double.isNaN(close) || Double.isNaN(volume)) {
+            return;
+        }
+
+        series.append(timestamp, open, high, low, close, volume);
+    }
+
+    /**
+     * Число обычно приходит JSON числом и читается прямо из буфера парсера;
+     * строковое значение разбирается как запасной вариант
+     */
+    private static double readDouble(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getValueAsDouble(Double.NaN);
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Ищет поле объекта и проверяет, что его значение - объект
+     */
+    private static boolean moveToObjectField(JsonParser parser, String name) throws IOException {
+        return moveToField(parser, name) && parser.currentToken() == JsonToken.START_OBJECT;
+    }
+
+    /**
+     * Пропускает поля текущего объекта до поля с указанным именем.
+     * Парсер остается на первом токене значения найденного поля.
+     */
+    private static boolean moveToField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(fieldName)) {
+                return value != null;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,182 @@
+package com.dayab.widget.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Планировщик периодических обновлений (цена, свечи и т.п.)
+ * У каждого ресурса свой период. Тики привязаны к сетке от момента запуска:
+ * пропущенные тики (сон системы, долгая пауза) не наверстываются пачкой,
+ * а следующий тик берется ближайший в будущем. К задержке добавляется
+ * случайный сдвиг, чтобы запросы разных ресурсов не совпадали.
+ * Новый запрос ресурса не начинается, пока предыдущий еще выполняется.
+ */
+public class RefreshScheduler {
+
+    private final ScheduledExecutorService executor;
+    private final Map<String, Job> jobs = new HashMap<>();
+    private boolean shutdown;
+
+    public RefreshScheduler() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает периодическое обновление ресурса; первый запуск - сразу (со сдвигом).
+     * Если ресурс с таким именем уже запланирован, он заменяется.
+     *
+     * @param name имя ресурса
+     * @param periodMillis период обновления
+     * @param jitterFraction доля периода для случайного сдвига (0 - без сдвига)
+     * @param fetch запуск обновления; возвращенный future завершается вместе с ним
+     */
+    public synchronized void schedule(String name, long periodMillis, double jitterFraction,
+                                      Supplier<CompletableFuture<?>> fetch) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Период должен быть положительным: " + periodMillis);
+        }
+        if (shutdown) return;
+
+        cancel(name);
+        Job job = new Job(name, periodMillis, jitterFraction, fetch);
+        jobs.put(name, job);
+        job.scheduleAt(0);
+    }
+
+    /**
+     * Запускает обновление ресурса вне очереди. Если оно сейчас выполняется,
+     * запуск откладывается до его завершения (несколько вызовов - один запуск).
+     * Сетка следующих тиков не меняется.
+     */
+    public synchronized void triggerNow(String name) {
+        Job job = jobs.get(name);
+        if (job != null && !shutdown) {
+            executor.execute(job::runRequested);
+        }
+    }
+
+    public synchronized void cancel(String name) {
+        Job job = jobs.remove(name);
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    public synchronized void shutdown() {
+        shutdown = true;
+        for (Job job : jobs.values()) {
+            job.cancel();
+        }
+        jobs.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Периодическое обновление одного ресурса.
+     * Номер тика и признаки выполнения меняются только в потоке планировщика:
+     * завершение обновления тоже обрабатывается в нем, иначе triggerNow,
+     * пришедший одновременно с завершением, мог бы потеряться.
+     */
+    private final class Job {
+        final String name;
+        final long periodNanos;
+        final double jitterFraction;
+        final Supplier<CompletableFuture<?>> fetch;
+        final long startNanos = System.nanoTime();
+
+        boolean inFlight;
+        boolean rerunRequested;
+        volatile boolean cancelled;
+        volatile ScheduledFuture<?> next;
+        long tick;
+
+        Job(String name, long periodMillis, double jitterFraction, Supplier<CompletableFuture<?>> fetch) {
+            this.name = name;
+            this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+            this.jitterFraction = Math.max(0, jitterFraction);
+            this.fetch = fetch;
+        }
+
+        void scheduleAt(long delayNanos) {
+            long jitter = jitterFraction > 0
+                ? (long) (ThreadLocalRandom.current().nextDouble() * jitterFraction * periodNanos)
+                : 0;
+            next = executor.schedule(this::onTick, delayNanos + jitter, TimeUnit.NANOSECONDS);
+        }
+
+        void onTick() {
+            if (cancelled) return;
+            runOnce();
+
+            // Ближайший тик сетки в будущем - пропущенные тики не наверстываем
+            long elapsed = System.nanoTime() - startNanos;
+            long nextTick = Math.max(tick + 1, elapsed / periodNanos + 1);
+            long skipped = nextTick - tick - 1;
+            if (skipped > 0) {
+                System.out.println("Обновление " + name + ": пропущено тиков " + skipped);
+            }
+            tick = nextTick;
+            if (cancelled) return;
+            scheduleAt(Math.max(0, startNanos + nextTick * periodNanos - System.nanoTime()));
+        }
+
+        void runOnce() {
+            if (cancelled) return;
+            if (inFlight) {
+                System.out.println("Обновление " + name + " еще выполняется, тик пропущен");
+                return;
+            }
+            start();
+        }
+
+        /**
+         * Запуск по triggerNow: во время выполнения не пропускается, а ждет его завершения
+         */
+        void runRequested() {
+            if (cancelled) return;
+            if (inFlight) {
+                rerunRequested = true;
+                System.out.println("Обновление " + name + " еще выполняется, запуск после него");
+                return;
+            }
+            start();
+        }
+
+        private void start() {
+            inFlight = true;
+            try {
+                fetch.get().whenCompleteAsync((result, error) -> {
+                    inFlight = false;
+                    if (error != null) {
+                        System.err.println("Ошибка обновления " + name + ": " + error.getMessage());
+                    }
+                    if (rerunRequested) {
+                        rerunRequested = false;
+                        runRequested();
+                    }
+                }, executor);
+            } catch (RuntimeException e) {
+                inFlight = false;
+                System.err.println("Ошибка запуска обновления " + name + ": " + e.getMessage());
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+    }
+}
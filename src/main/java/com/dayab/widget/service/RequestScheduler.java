@@ -0,0 +1,287 @@
+package com.dayab.widget.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Планировщик запросов к GeckoTerminal API
+ * Ограничивает частоту запросов по алгоритму token bucket, выполняет
+ * запросы по приоритету и отбрасывает устаревшие в очереди.
+ * После ответа 429 приостанавливает отправку на время из Retry-After.
+ */
+public class RequestScheduler {
+
+    /**
+     * Приоритеты запросов: чем раньше в списке, тем важнее.
+     * maxWaitMillis - сколько запрос может ждать в очереди, прежде чем устареет.
+     */
+    public enum Priority {
+        PRICE(5_000),
+        POOL(15_000),
+        OHLCV(30_000);
+
+        private final long maxWaitMillis;
+
+        Priority(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+    }
+
+    // Публичный API GeckoTerminal допускает ~30 запросов в минуту
+    public static final int DEFAULT_REQUESTS_PER_MINUTE = 30;
+    public static final int DEFAULT_BURST = 3;
+
+    private static final long MIN_BACKOFF_MILLIS = 2_000;
+    private static final long MAX_BACKOFF_MILLIS = 120_000;
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final ScheduledExecutorService dispatcher;
+
+    private final PriorityQueue<Task<?>> queue = new PriorityQueue<>();
+    private final Map<String, Task<?>> queuedByKey = new HashMap<>();
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private long backoffMillis;
+    private long sequence;
+    private boolean drainScheduled;
+    private boolean shutdown;
+
+    public RequestScheduler() {
+        this(DEFAULT_REQUESTS_PER_MINUTE, DEFAULT_BURST);
+    }
+
+    /**
+     * @param requestsPerMinute допустимое среднее число запросов в минуту
+     * @param burst сколько запросов можно отправить подряд без ожидания
+     */
+    public RequestScheduler(int requestsPerMinute, int burst) {
+        if (requestsPerMinute <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Лимит запросов должен быть положительным");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gecko-request-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ставит запрос в очередь.
+     * Если запрос с тем же ключом уже ожидает отправки, возвращается его результат
+     * вместо повторного запроса.
+     *
+     * @param priority приоритет запроса
+     * @param key ключ для объединения одинаковых запросов (обычно URL)
+     * @param call действие, отправляющее запрос; вызывается, когда есть бюджет
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(Priority priority, String key, Supplier<CompletableFuture<T>> call) {
+        synchronized (this) {
+            if (shutdown) {
+                CompletableFuture<T> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(new CancellationException("Планировщик запросов остановлен"));
+                return rejected;
+            }
+
+            Task<?> queued = queuedByKey.get(key);
+            if (queued != null) {
+                // Тот же запрос уже ждет - продлеваем ему жизнь и отдаем общий результат
+                queued.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(priority.getMaxWaitMillis());
+                return (CompletableFuture<T>) queued.result;
+            }
+
+            Task<T> task = new Task<>(priority, key, call, sequence++);
+            queue.add(task);
+            queuedByKey.put(key, task);
+            scheduleDrain(0);
+            return task.result;
+        }
+    }
+
+    /**
+     * Сообщает о превышении лимита (HTTP 429).
+     *
+     * @param retryAfterMillis задержка из заголовка Retry-After или отрицательное число,
+     *                         если заголовка нет - тогда задержка растет экспоненциально
+     */
+    public synchronized void onRateLimited(long retryAfterMillis) {
+        long delayMillis;
+        if (retryAfterMillis >= 0) {
+            delayMillis = Math.min(retryAfterMillis, MAX_BACKOFF_MILLIS);
+            backoffMillis = Math.max(backoffMillis, MIN_BACKOFF_MILLIS);
+        } else {
+            backoffMillis = backoffMillis == 0
+                ? MIN_BACKOFF_MILLIS
+                : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            delayMillis = backoffMillis;
+        }
+
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        if (until - pausedUntilNanos > 0) {
+            pausedUntilNanos = until;
+        }
+        // Бюджет, накопленный до 429, уже не актуален
+        tokens = 0;
+        lastRefillNanos = System.nanoTime();
+
+        System.err.println("Превышен лимит запросов GeckoTerminal, пауза " + delayMillis + " мс");
+    }
+
+    /**
+     * Сообщает об успешном ответе, сбрасывает экспоненциальную задержку
+     */
+    public synchronized void onSuccess() {
+        backoffMillis = 0;
+    }
+
+    /**
+     * Количество запросов, ожидающих отправки
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Останавливает планировщик, ожидающие запросы отменяются
+     */
+    public void shutdown() {
+        List<Task<?>> pending;
+        synchronized (this) {
+            shutdown = true;
+            pending = new ArrayList<>(queue);
+            queue.clear();
+            queuedByKey.clear();
+        }
+        for (Task<?> task : pending) {
+            task.result.completeExceptionally(new CancellationException("Планировщик запросов остановлен"));
+        }
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Отправляет запросы из очереди, пока хватает бюджета
+     */
+    private void drain() {
+        List<Task<?>> ready = new ArrayList<>();
+        List<Task<?>> stale = new ArrayList<>();
+
+        synchronized (this) {
+            drainScheduled = false;
+            if (shutdown) return;
+
+            long now = System.nanoTime();
+            refill(now);
+
+            while (!queue.isEmpty()) {
+                Task<?> head = queue.peek();
+                if (now - head.deadlineNanos > 0) {
+                    queue.poll();
+                    queuedByKey.remove(head.key);
+                    stale.add(head);
+                    continue;
+                }
+
+                if (now - pausedUntilNanos < 0 || tokens < 1.0) {
+                    break;
+                }
+
+                queue.poll();
+                queuedByKey.remove(head.key);
+                tokens -= 1.0;
+                ready.add(head);
+            }
+
+            if (!queue.isEmpty()) {
+                scheduleDrain(nanosUntilNextSlot(now));
+            }
+        }
+
+        for (Task<?> task : stale) {
+            task.result.completeExceptionally(
+                new CancellationException("Запрос устарел в очереди: " + task.key));
+        }
+        for (Task<?> task : ready) {
+            task.start();
+        }
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+
+    private long nanosUntilNextSlot(long now) {
+        long untilToken = tokens >= 1.0 ? 0 : (long) Math.ceil((1.0 - tokens) / tokensPerNano);
+        long untilResume = Math.max(0, pausedUntilNanos - now);
+        return Math.max(untilToken, untilResume);
+    }
+
+    private void scheduleDrain(long delayNanos) {
+        if (drainScheduled) return;
+        drainScheduled = true;
+        dispatcher.schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Запрос в очереди
+     */
+    private static final class Task<T> implements Comparable<Task<?>> {
+        final Priority priority;
+        final String key;
+        final Supplier<CompletableFuture<T>> call;
+        final long sequence;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        long deadlineNanos;
+
+        Task(Priority priority, String key, Supplier<CompletableFuture<T>> call, long sequence) {
+            this.priority = priority;
+            this.key = key;
+            this.call = call;
+            this.sequence = sequence;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(priority.getMaxWaitMillis());
+        }
+
+        void start() {
+            try {
+                call.get().whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
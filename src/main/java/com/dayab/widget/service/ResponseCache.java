@@ -0,0 +1,181 @@
+package com.dayab.widget.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+
+/**
+ * Кэш ответов GeckoTerminal API по URL
+ * Хранит уже разобранный результат ответа и его валидаторы (ETag, Last-Modified).
+ * Пока запись свежая (TTL эндпоинта), запрос в сеть не отправляется вовсе;
+ * после этого он уходит условным, и на 304 Not Modified разобранный результат
+ * переиспользуется без загрузки и разбора тела.
+ * Число записей ограничено: вытесняется самая давно использованная.
+ * Потокобезопасен.
+ */
+public final class ResponseCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    public ResponseCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public ResponseCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Запись для URL или null
+     */
+    synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * Сохраняет разобранный ответ 200. Ответ с Cache-Control: no-store не сохраняется,
+     * как и ответ без валидаторов при нулевом TTL - его все равно нечем перепроверить.
+     */
+    void store(String url, HttpResponse response, Object value, long ttlMillis) {
+        Header cacheControl = response.getFirstHeader(HttpHeaders.CACHE_CONTROL);
+        if (cacheControl != null && cacheControl.getValue() != null
+            && cacheControl.getValue().toLowerCase(Locale.ROOT).contains("no-store")) {
+            remove(url);
+            return;
+        }
+
+        Entry entry = new Entry(value, headerValue(response, HttpHeaders.ETAG),
+                                headerValue(response, HttpHeaders.LAST_MODIFIED), freshUntil(ttlMillis));
+        if (ttlMillis <= 0 && !entry.hasValidators()) {
+            remove(url);
+            return;
+        }
+        synchronized (this) {
+            entries.put(url, entry);
+        }
+    }
+
+    /**
+     * Продлевает запись после 304; новые валидаторы из ответа заменяют старые
+     */
+    void revalidate(String url, Entry entry, HttpResponse notModified, long ttlMillis) {
+        String etag = headerValue(notModified, HttpHeaders.ETAG);
+        String lastModified = headerValue(notModified, HttpHeaders.LAST_MODIFIED);
+        Entry renewed = new Entry(entry.value,
+                                  etag != null ? etag : entry.etag,
+                                  lastModified != null ? lastModified : entry.lastModified,
+                                  freshUntil(ttlMillis));
+        synchronized (this) {
+            entries.put(url, renewed);
+        }
+    }
+
+    synchronized void remove(String url) {
+        entries.remove(url);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordRevalidation() {
+        revalidations.incrementAndGet();
+    }
+
+    /**
+     * Ответы, отданные из свежей записи без запроса в сеть
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Ответы, загруженные и разобранные заново (200)
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Условные запросы, на которые сервер ответил 304 и результат переиспользован
+     */
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        return "попаданий: " + getHitCount() + ", перепроверено (304): " + getRevalidationCount()
+            + ", загружено: " + getMissCount() + ", записей: " + size();
+    }
+
+    private static long freshUntil(long ttlMillis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+    }
+
+    private static String headerValue(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null && header.getValue() != null && !header.getValue().isEmpty()
+            ? header.getValue()
+            : null;
+    }
+
+    /**
+     * Разобранный ответ, его валидаторы и срок свежести; неизменяемая
+     */
+    static final class Entry {
+        final Object value;
+        final String etag;
+        final String lastModified;
+        final long freshUntilNanos;
+
+        Entry(Object value, String etag, String lastModified, long freshUntilNanos) {
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.freshUntilNanos = freshUntilNanos;
+        }
+
+        boolean isFresh() {
+            return System.nanoTime() - freshUntilNanos < 0;
+        }
+
+        boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
+}
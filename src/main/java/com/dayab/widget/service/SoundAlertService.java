@@ -1,52 +1,51 @@
 package com.dayab.widget.service;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 
 /**
  * Сервис для воспроизведения звуковых уведомлений
  * Создает ужасный звук для привлечения внимания при пампе
  * Поддерживает кастомные звуковые файлы
+ * Сгенерированные звуки берутся из SoundBank - синтезируются и открываются один раз
+ *
+ * Все звуки проигрывает один поток sound-player. Очередь событий ограничена
+ * одним событием каждого вида: повторные сигналы обновления сливаются в один,
+ * памп вытесняет ожидающий и играющий сигнал обновления и обрабатывается первым.
+ * Кастомный звук играет CustomSoundPlayer: короткий из памяти, длинный - потоком с диска.
  */
 public class SoundAlertService {
     
-    private volatile boolean isPlaying = false;
-    private Clip currentClip;
+    private final SoundBank soundBank = new SoundBank();
+    private final CustomSoundPlayer customPlayer = new CustomSoundPlayer();
+    private final Thread worker;
+    
+    // Очередь событий - под queueLock
+    private final Object queueLock = new Object();
+    private boolean pumpPending;
+    private String pumpSoundFile;
+    private boolean updatePending;
+    private boolean closed;
+    
+    public SoundAlertService() {
+        worker = new Thread(this::runWorker, "sound-player");
+        worker.setDaemon(true);
+        worker.start();
+    }
     
     /**
      * Воспроизводит звук тревоги при пампе
      * Если указан кастомный файл, воспроизводит его, иначе генерирует стандартный звук
      */
     public void playPumpAlert(String customSoundFile) {
-        if (isPlaying) return;
-        
-        new Thread(() -> {
-            try {
-                isPlaying = true;
-                
-                if (customSoundFile != null && !customSoundFile.trim().isEmpty()) {
-                    // Пытаемся воспроизвести кастомный файл
-                    if (playCustomSoundFile(customSoundFile)) {
-                        return; // Успешно воспроизвели кастомный звук
-                    } else {
-                        System.err.println("Не удалось воспроизвести кастомный файл, используем стандартный звук");
-                    }
-                }
-                
-                // Воспроизводим стандартный генерированный звук
-                playGeneratedPumpSound();
-                
-            } catch (Exception e) {
-                System.err.println("Ошибка воспроизведения звука: " + e.getMessage());
-            } finally {
-                isPlaying = false;
-            }
-        }).start();
+        synchronized (queueLock) {
+            if (closed) return;
+            pumpPending = true;
+            pumpSoundFile = customSoundFile;
+            updatePending = false; // Сигнал обновления после пампа не нужен
+            queueLock.notifyAll();
+        }
     }
     
     /**
@@ -57,175 +56,106 @@ public class SoundAlertService {
     }
     
     /**
-     * Воспроизводит кастомный звуковой файл
+     * Воспроизводит короткий сигнал обновления данных
      */
-    private boolean playCustomSoundFile(String filePath) {
-        try {
-            File soundFile = new File(filePath);
-            if (!soundFile.exists()) {
-                System.err.println("Звуковой файл не найден: " + filePath);
-                return false;
-            }
-            
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(soundFile);
-            currentClip = AudioSystem.getClip();
-            currentClip.open(audioStream);
-            
-            // Воспроизводим файл один раз (можно настроить)
-            currentClip.start();
-            
-            // Ждем завершения
-            while (currentClip.isRunning()) {
-                Thread.sleep(100);
-            }
-            
-            currentClip.close();
-            audioStream.close();
-            
-            System.out.println("Успешно воспроизведен кастомный звук: " + soundFile.getName());
-            return true;
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка воспроизведения кастомного файла: " + e.getMessage());
-            return false;
+    public void playUpdateSound() {
+        synchronized (queueLock) {
+            if (closed || pumpPending) return;
+            updatePending = true;
+            queueLock.notifyAll();
         }
     }
     
     /**
-     * Воспроизводит стандартный генерированный звук пампа
+     * Останавливает текущее воспроизведение и сбрасывает ожидающие звуки
      */
-    private void playGeneratedPumpSound() {
-        try {
-            // Создаем ужасный звук - комбинация высоких и низких частот
-            byte[] soundData = generatePumpSound();
-            
-            AudioFormat format = new AudioFormat(44100, 16, 1, true, false);
-            AudioInputStream audioStream = new AudioInputStream(
-                new ByteArrayInputStream(soundData), format, soundData.length / 2
-            );
-            
-            currentClip = AudioSystem.getClip();
-            currentClip.open(audioStream);
-            
-            // Воспроизводим звук 3 раза
-            currentClip.loop(2);
-            currentClip.start();
-            
-            // Ждем завершения
-            while (currentClip.isRunning()) {
-                Thread.sleep(100);
-            }
-            
-            currentClip.close();
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка воспроизведения стандартного звука: " + e.getMessage());
-            throw new RuntimeException(e);
+    public void stopCurrentSound() {
+        synchronized (queueLock) {
+            pumpPending = false;
+            pumpSoundFile = null;
+            updatePending = false;
         }
+        
+        customPlayer.stop();
+        soundBank.stop();
     }
     
     /**
-     * Воспроизводит короткий сигнал обновления данных
-     */
-    public void playUpdateSound() {
-        new Thread(() -> {
-            try {
-                byte[] soundData = generateUpdateSound();
-                
-                AudioFormat format = new AudioFormat(44100, 16, 1, true, false);
-                AudioInputStream audioStream = new AudioInputStream(
-                    new ByteArrayInputStream(soundData), format, soundData.length / 2
-                );
-                
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioStream);
-                clip.start();
-                
-                // Ждем завершения
-                while (clip.isRunning()) {
-                    Thread.sleep(10);
-                }
-                
-                clip.close();
-                
-            } catch (Exception e) {
-                System.err.println("Ошибка воспроизведения звука обновления: " + e.getMessage());
-            }
-        }).start();
-    }
-    
-    /**
-     * Останавливает текущее воспроизведение
+     * Останавливает звуки, завершает поток воспроизведения и освобождает аудиолинии
      */
-    public void stopCurrentSound() {
-        if (currentClip != null && currentClip.isRunning()) {
-            currentClip.stop();
-            currentClip.close();
-            isPlaying = false;
+    public void close() {
+        synchronized (queueLock) {
+            closed = true;
+            queueLock.notifyAll();
         }
+        stopCurrentSound();
+        customPlayer.close();
+        soundBank.close();
     }
     
     /**
-     * Генерирует ужасный звук для алерта о пампе
+     * Цикл потока воспроизведения: сначала готовит звуки, затем разбирает очередь
      */
-    private byte[] generatePumpSound() {
-        int duration = 2; // 2 секунды
-        int sampleRate = 44100;
-        int samples = duration * sampleRate;
-        byte[] soundData = new byte[samples * 2]; // 16-bit sound
+    private void runWorker() {
+        // Готовим звуки заранее, чтобы первый алерт прозвучал без задержки
+        soundBank.preload();
         
-        for (int i = 0; i < samples; i++) {
-            double time = (double) i / sampleRate;
-            
-            // Комбинация раздражающих частот
-            double frequency1 = 800 + Math.sin(time * 10) * 200; // Модулирующий тон
-            double frequency2 = 1200 + Math.cos(time * 15) * 300; // Высокий пронзительный
-            double frequency3 = 200 + Math.sin(time * 5) * 50;    // Низкий грохот
-            
-            // Создаем хаотичный звук
-            double wave1 = Math.sin(2 * Math.PI * frequency1 * time);
-            double wave2 = Math.sin(2 * Math.PI * frequency2 * time) * 0.7;
-            double wave3 = Math.sin(2 * Math.PI * frequency3 * time) * 0.5;
-            
-            // Добавляем искажения
-            double distortion = Math.sin(time * 50) * 0.3;
-            double sample = (wave1 + wave2 + wave3) * (0.8 + distortion);
-            
-            // Ограничиваем амплитуду
-            sample = Math.max(-1.0, Math.min(1.0, sample));
+        while (true) {
+            boolean pump;
+            String soundFile;
+            synchronized (queueLock) {
+                while (!closed && !pumpPending && !updatePending) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) return;
+                
+                pump = pumpPending;
+                soundFile = pumpSoundFile;
+                if (pump) {
+                    pumpPending = false;
+                    pumpSoundFile = null;
+                } else {
+                    updatePending = false;
+                }
+            }
             
-            // Конвертируем в 16-bit
-            short sampleValue = (short) (sample * Short.MAX_VALUE);
-            soundData[i * 2] = (byte) (sampleValue & 0xFF);
-            soundData[i * 2 + 1] = (byte) ((sampleValue >> 8) & 0xFF);
+            try {
+                if (pump) {
+                    handlePump(soundFile);
+                } else if (!isPumpPlaying()) {
+                    soundBank.play(SoundBank.Sound.UPDATE);
+                }
+            } catch (Exception e) {
+                System.err.println("Ошибка воспроизведения звука: " + e.getMessage());
+            }
         }
-        
-        return soundData;
     }
     
-    /**
-     * Генерирует тихий звук обновления данных
-     */
-    private byte[] generateUpdateSound() {
-        int duration = 200; // 200мс
-        int sampleRate = 44100;
-        int samples = duration * sampleRate / 1000;
-        byte[] soundData = new byte[samples * 2];
+    private void handlePump(String customSoundFile) {
+        if (isPumpPlaying()) return; // Алерт уже звучит
         
-        for (int i = 0; i < samples; i++) {
-            double time = (double) i / sampleRate;
-            double frequency = 600; // Приятная частота
-            
-            // Простой синусоидальный сигнал с затуханием
-            double envelope = 1.0 - (double) i / samples; // Затухание
-            double sample = Math.sin(2 * Math.PI * frequency * time) * envelope * 0.3;
-            
-            short sampleValue = (short) (sample * Short.MAX_VALUE);
-            soundData[i * 2] = (byte) (sampleValue & 0xFF);
-            soundData[i * 2 + 1] = (byte) ((sampleValue >> 8) & 0xFF);
+        soundBank.stop(SoundBank.Sound.UPDATE);
+        
+        if (customSoundFile != null && !customSoundFile.trim().isEmpty()) {
+            // Пытаемся воспроизвести кастомный файл
+            if (customPlayer.play(new File(customSoundFile))) {
+                return; // Успешно запустили кастомный звук
+            }
+            System.err.println("Не удалось воспроизвести кастомный файл, используем стандартный звук");
         }
         
-        return soundData;
+        // Воспроизводим стандартный генерированный звук
+        if (!soundBank.play(SoundBank.Sound.PUMP)) {
+            System.err.println("Ошибка воспроизведения стандартного звука: аудиосистема недоступна");
+        }
+    }
+    
+    private boolean isPumpPlaying() {
+        return customPlayer.isPlaying() || soundBank.isPlaying(SoundBank.Sound.PUMP);
     }
     
     /**
@@ -238,4 +168,4 @@ public class SoundAlertService {
             return false;
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,192 @@
+package com.dayab.widget.service;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+
+/**
+ * Банк сгенерированных звуков
+ * Каждый звук синтезируется один раз, а его Clip открывается один раз и
+ * переиспользуется: повторное воспроизведение - перемотка в начало и старт,
+ * без синтеза, новых потоков и открытия аудиолинии.
+ * Если аудиосистема недоступна, звук помечается недоступным и больше не открывается.
+ */
+public final class SoundBank {
+
+    /**
+     * Сгенерированные звуки и число повторов после первого проигрывания
+     */
+    public enum Sound {
+        PUMP(2),   // Звук пампа играет 3 раза
+        UPDATE(0);
+
+        private final int loops;
+
+        Sound(int loops) {
+            this.loops = loops;
+        }
+    }
+
+    static final int SAMPLE_RATE = 44100;
+    static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+
+    private final Map<Sound, Clip> clips = new EnumMap<>(Sound.class);
+    private final Set<Sound> unavailable = EnumSet.noneOf(Sound.class);
+    private boolean closed;
+
+    /**
+     * Синтезирует и открывает все звуки заранее, чтобы первый алерт не ждал
+     */
+    public synchronized void preload() {
+        for (Sound sound : Sound.values()) {
+            clip(sound);
+        }
+    }
+
+    /**
+     * Проигрывает звук с начала; если он уже играет - перезапускает
+     *
+     * @return false, если звук недоступен
+     */
+    public synchronized boolean play(Sound sound) {
+        Clip clip = clip(sound);
+        if (clip == null) return false;
+
+        clip.stop();
+        clip.setFramePosition(0);
+        if (sound.loops > 0) {
+            clip.loop(sound.loops);
+        } else {
+            clip.start();
+        }
+        return true;
+    }
+
+    /**
+     * Играет ли сейчас звук
+     */
+    public synchronized boolean isPlaying(Sound sound) {
+        Clip clip = clips.get(sound);
+        return clip != null && clip.isRunning();
+    }
+
+    /**
+     * Останавливает звук, оставляя его открытым
+     */
+    public synchronized void stop(Sound sound) {
+        Clip clip = clips.get(sound);
+        if (clip != null) {
+            clip.stop();
+        }
+    }
+
+    /**
+     * Останавливает все звуки, оставляя их открытыми
+     */
+    public synchronized void stop() {
+        for (Clip clip : clips.values()) {
+            clip.stop();
+        }
+    }
+
+    /**
+     * Закрывает все аудиолинии; после этого звуки не воспроизводятся
+     */
+    public synchronized void close() {
+        closed = true;
+        for (Clip clip : clips.values()) {
+            clip.close();
+        }
+        clips.clear();
+    }
+
+    private Clip clip(Sound sound) {
+        Clip clip = clips.get(sound);
+        if (clip != null || closed || unavailable.contains(sound)) {
+            return clip;
+        }
+
+        byte[] pcm = sound == Sound.PUMP ? synthesizePump() : synthesizeUpdate();
+        try {
+            clip = AudioSystem.getClip();
+            clip.open(FORMAT, pcm, 0, pcm.length);
+            clips.put(sound, clip);
+            return clip;
+        } catch (Exception e) {
+            System.err.println("Звук " + sound + " недоступен: " + e.getMessage());
+            unavailable.add(sound);
+            if (clip != null) {
+                clip.close();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Генерирует ужасный звук для алерта о пампе
+     */
+    static byte[] synthesizePump() {
+        int duration = 2; // 2 секунды
+        int samples = duration * SAMPLE_RATE;
+        byte[] soundData = new byte[samples * 2]; // 16-bit sound
+
+        for (int i = 0; i < samples; i++) {
+            double time = (double) i / SAMPLE_RATE;
+
+            // Комбинация раздражающих частот
+            double frequency1 = 800 + Math.sin(time * 10) * 200; // Модулирующий тон
+            double frequency2 = 1200 + Math.cos(time * 15) * 300; // Высокий пронзительный
+            double frequency3 = 200 + Math.sin(time * 5) * 50;    // Низкий грохот
+
+            // Создаем хаотичный звук
+            double wave1 = Math.sin(2 * Math.PI * frequency1 * time);
+            double wave2 = Math.sin(2 * Math.PI * frequency2 * time) * 0.7;
+            double wave3 = Math.sin(2 * Math.PI * frequency3 * time) * 0.5;
+
+            // Добавляем искажения
+            double distortion = Math.sin(time * 50) * 0.3;
+            double sample = (wave1 + wave2 + wave3) * (0.8 + distortion);
+
+            // Ограничиваем амплитуду
+            sample = Math.max(-1.0, Math.min(1.0, sample));
+
+            writeSample(soundData, i, sample);
+        }
+
+        return soundData;
+    }
+
+    /**
+     * Генерирует тихий звук обновления данных
+     */
+    static byte[] synthesizeUpdate() {
+        int duration = 200; // 200мс
+        int samples = duration * SAMPLE_RATE / 1000;
+        byte[] soundData = new byte[samples * 2];
+
+        for (int i = 0; i < samples; i++) {
+            double time = (double) i / SAMPLE_RATE;
+            double frequency = 600; // Приятная частота
+
+            // Простой синусоидальный сигнал с затуханием
+            double envelope = 1.0 - (double) i / samples; // Затухание
+            double sample = Math.sin(2 * Math.PI * frequency * time) * envelope * 0.3;
+
+            writeSample(soundData, i, sample);
+        }
+
+        return soundData;
+    }
+
+    // Конвертирует в 16-bit little-endian
+    private static void writeSample(byte[] target, int index, double sample) {
+        short sampleValue = (short) (sample * Short.MAX_VALUE);
+        target[index * 2] = (byte) (sampleValue & 0xFF);
+        target[index * 2 + 1] = (byte) ((sampleValue >> 8) & 0xFF);
+    }
+}
@@ -0,0 +1,111 @@
+package com.dayab.widget.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.dayab.widget.model.PriceData;
+import com.dayab.widget.model.WatchedToken;
+
+/**
+ * Список наблюдения за несколькими токенами
+ * Цены всех токенов одной сети запрашиваются пачками до MAX_ADDRESSES_PER_REQUEST
+ * адресов через один GeckoTerminalApiService - то есть через общий пул соединений
+ * и общий планировщик запросов. Результат раздается подписчикам каждого токена.
+ */
+public class WatchlistService {
+
+    private final GeckoTerminalApiService apiService;
+    private final Map<WatchedToken, List<Consumer<PriceData>>> listeners = new LinkedHashMap<>();
+
+    public WatchlistService(GeckoTerminalApiService apiService) {
+        this.apiService = apiService;
+    }
+
+    /**
+     * Добавляет токен в список и подписывает listener на его цены.
+     * Повторный вызов для того же токена добавляет еще одного подписчика.
+     */
+    public synchronized void addToken(WatchedToken token, Consumer<PriceData> listener) {
+        listeners.computeIfAbsent(token, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Убирает токен из списка вместе со всеми подписчиками
+     */
+    public synchronized void removeToken(WatchedToken token) {
+        listeners.remove(token);
+    }
+
+    public synchronized List<WatchedToken> getTokens() {
+        return new ArrayList<>(listeners.keySet());
+    }
+
+    /**
+     * Запрашивает цены всех токенов и раздает их подписчикам.
+     * Токены группируются по сети (без учета регистра, как в WatchedToken.equals),
+     * каждая группа делится на пачки по лимиту API.
+     */
+    public CompletableFuture<Void> refresh() {
+        Map<String, List<WatchedToken>> byNetwork = new LinkedHashMap<>();
+        synchronized (this) {
+            for (WatchedToken token : listeners.keySet()) {
+                byNetwork.computeIfAbsent(token.getNetwork().toLowerCase(Locale.ROOT), key -> new ArrayList<>()).add(token);
+            }
+        }
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (Map.Entry<String, List<WatchedToken>> entry : byNetwork.entrySet()) {
+            List<WatchedToken> tokens = entry.getValue();
+            for (int from = 0; from < tokens.size(); from += GeckoTerminalApiService.MAX_ADDRESSES_PER_REQUEST) {
+                int to = Math.min(from + GeckoTerminalApiService.MAX_ADDRESSES_PER_REQUEST, tokens.size());
+                batches.add(refreshBatch(entry.getKey(), tokens.subList(from, to)));
+            }
+        }
+
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private CompletableFuture<Void> refreshBatch(String network, List<WatchedToken> tokens) {
+        List<String> addresses = new ArrayList<>(tokens.size());
+        for (WatchedToken token : tokens) {
+            addresses.add(token.getAddress());
+        }
+
+        return apiService.getTokenPrices(network, addresses)
+            .thenAccept(prices -> {
+                for (WatchedToken token : tokens) {
+                    PriceData priceData = prices.get(token.getAddress().toLowerCase(Locale.ROOT));
+                    if (priceData == null) continue;
+
+                    priceData.setSymbol(token.getSymbol());
+                    publish(token, priceData);
+                }
+            })
+            .exceptionally(e -> {
+                System.err.println("Ошибка обновления списка наблюдения (" + network + "): " + e.getMessage());
+                return null;
+            });
+    }
+
+    private void publish(WatchedToken token, PriceData priceData) {
+        List<Consumer<PriceData>> tokenListeners;
+        synchronized (this) {
+            tokenListeners = listeners.get(token);
+        }
+        if (tokenListeners == null) return;
+
+        for (Consumer<PriceData> listener : tokenListeners) {
+            try {
+                listener.accept(priceData);
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка подписчика " + token + ": " + e.getMessage());
+            }
+        }
+    }
+}
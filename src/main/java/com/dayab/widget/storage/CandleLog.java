@@ -0,0 +1,211 @@
+package com.dayab.widget.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Журнал свечей одного ряда (пул + интервал) - каталог сегментов только для дописывания
+ *
+ * Обновление открытой свечи дописывается новой записью, при чтении последняя запись
+ * с тем же временем побеждает. Когда записей становится слишком много, журнал
+ * компактируется: последние свечи переписываются в новый базовый сегмент,
+ * а старые сегменты удаляются. Если сбой случится посреди компактации,
+ * новый сегмент просто повторяет уже записанные свечи, и чтение дает тот же ряд.
+ */
+final class CandleLog implements Closeable {
+
+    static final int SEGMENT_CAPACITY = 1024;
+    // Сколько свечей сохраняется при компактации
+    static final int MAX_RETAINED_CANDLES = 2000;
+    // После скольких записей в журнале запускается компактация
+    static final int COMPACT_THRESHOLD = 4096;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    // Индекс: сегменты по порядку записи, у каждого известен диапазон времени
+    private final List<CandleSegment> segments = new ArrayList<>();
+    private int recordCount;
+
+    private CandleLog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Открывает журнал в каталоге, восстанавливая сегменты после сбоя
+     */
+    static CandleLog open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        CandleLog log = new CandleLog(directory);
+        try {
+            log.loadSegments();
+            if (log.recordCount > COMPACT_THRESHOLD) {
+                log.compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /**
+     * Читает ряд со свечами не старше sinceTime
+     */
+    CandleSeries load(long sinceTime) {
+        CandleSeries series = new CandleSeries();
+        CandleSegment.SeriesSink sink = new CandleSegment.SeriesSink(series, sinceTime);
+        for (CandleSegment segment : segments) {
+            if (segment.getCount() == 0 || segment.getMaxTime() < sinceTime) continue;
+            segment.readInto(sink);
+        }
+        return series;
+    }
+
+    /**
+     * Дописывает свечи в журнал и сбрасывает их на диск
+     */
+    void append(CandleSeries candles) throws IOException {
+        if (candles.isEmpty()) return;
+
+        CandleSegment active = null;
+        for (int i = 0; i < candles.size(); i++) {
+            active = activeSegment();
+            active.append(candles.getTime(i), candles.getOpen(i), candles.getHigh(i),
+                candles.getLow(i), candles.getClose(i), candles.getVolume(i));
+            recordCount++;
+        }
+        active.force();
+
+        if (recordCount > COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * Переписывает последние MAX_RETAINED_CANDLES свечей в новый базовый сегмент
+     */
+    void compact() throws IOException {
+        CandleSeries retained = load(Long.MIN_VALUE);
+        retained.trimToLast(MAX_RETAINED_CANDLES);
+
+        CandleSegment base = createSegment(Math.max(retained.size(), SEGMENT_CAPACITY));
+        for (int i = 0; i < retained.size(); i++) {
+            base.append(retained.getTime(i), retained.getOpen(i), retained.getHigh(i),
+                retained.getLow(i), retained.getClose(i), retained.getVolume(i));
+        }
+        base.force();
+        // Флаг базы ставится только после того, как данные на диске
+        base.markBase();
+        base.force();
+
+        dropSegmentsBefore(segments.size() - 1);
+        System.out.println("Журнал свечей " + directory.getFileName() + " компактирован: " +
+                         recordCount + " -> " + base.getCount() + " записей");
+        recordCount = base.getCount();
+    }
+
+    @Override
+    public void close() {
+        for (CandleSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия сегмента " + segment.getPath() + ": " + e.getMessage());
+            }
+        }
+        segments.clear();
+    }
+
+    private void loadSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null);
+
+        for (Path file : files) {
+            long sequence = parseSequence(file);
+            if (sequence < 0) continue;
+            try {
+                segments.add(CandleSegment.open(file, sequence));
+            } catch (IOException e) {
+                // Сегмент без целого заголовка - например, сбой сразу после создания
+                System.err.println("Пропускаем поврежденный сегмент: " + e.getMessage());
+                deleteQuietly(file);
+            }
+        }
+
+        // Все, что раньше последней базы, уже переписано компактацией
+        for (int i = segments.size() - 1; i > 0; i--) {
+            if (segments.get(i).isBase()) {
+                dropSegmentsBefore(i);
+                break;
+            }
+        }
+
+        recordCount = 0;
+        for (CandleSegment segment : segments) {
+            recordCount += segment.getCount();
+        }
+    }
+
+    private CandleSegment activeSegment() throws IOException {
+        if (!segments.isEmpty()) {
+            CandleSegment last = segments.get(segments.size() - 1);
+            if (!last.isFull()) return last;
+            last.force();
+        }
+        return createSegment(SEGMENT_CAPACITY);
+    }
+
+    private CandleSegment createSegment(int capacity) throws IOException {
+        long sequence = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).getSequence() + 1;
+        Path file = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        CandleSegment segment = CandleSegment.create(file, sequence, capacity);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void dropSegmentsBefore(int index) {
+        List<CandleSegment> dropped = new ArrayList<>(segments.subList(0, index));
+        segments.subList(0, index).clear();
+        for (CandleSegment segment : dropped) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия сегмента " + segment.getPath() + ": " + e.getMessage());
+            }
+            // На Windows отображенный файл может не удалиться до сборки мусора -
+            // тогда его удалит следующее открытие журнала, он старше базы
+            deleteQuietly(segment.getPath());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Не удалось удалить " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private static long parseSequence(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.dayab.widget.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Сегмент журнала свечей - файл фиксированного размера, отображенный в память
+ *
+ * Заголовок (64 байта): magic, версия, размер записи, емкость, флаги, число записей,
+ * минимальное и максимальное время свечей (по ним журнал пропускает ненужные сегменты).
+ *
+ * Запись (56 байт): time, open, high, low, close, volume, CRC32 первых 48 байт
+ * и маркер фиксации. Маркер пишется последним, поэтому оборванная запись
+ * определяется по отсутствию маркера или неверной контрольной сумме.
+ */
+final class CandleSegment implements Closeable {
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 56;
+
+    // Сегмент - результат компактации, все сегменты до него можно удалить
+    static final int FLAG_BASE = 1;
+
+    private static final int MAGIC = 0x47534353; // "GSCS"
+    private static final int VERSION = 1;
+    private static final int COMMIT_MARKER = 0x434E444C; // "CNDL"
+    private static final int DATA_SIZE = 48;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_RECORD_SIZE = 8;
+    private static final int OFFSET_CAPACITY = 12;
+    private static final int OFFSET_FLAGS = 16;
+    private static final int OFFSET_COUNT = 20;
+    private static final int OFFSET_MIN_TIME = 24;
+    private static final int OFFSET_MAX_TIME = 32;
+
+    private final Path path;
+    private final long sequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[DATA_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch).order(ByteOrder.LITTLE_ENDIAN);
+
+    private int flags;
+    private int count;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+
+    private CandleSegment(Path path, long sequence, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.sequence = sequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Создает пустой сегмент на capacity записей
+     */
+    static CandleSegment create(Path path, long sequence, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = map(channel, capacity);
+            buffer.putInt(OFFSET_MAGIC, MAGIC);
+            buffer.putInt(OFFSET_VERSION, VERSION);
+            buffer.putInt(OFFSET_RECORD_SIZE, RECORD_SIZE);
+            buffer.putInt(OFFSET_CAPACITY, capacity);
+
+            CandleSegment segment = new CandleSegment(path, sequence, channel, buffer, capacity);
+            segment.writeHeaderState();
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Открывает существующий сегмент и восстанавливает его после сбоя:
+     * записи читаются до первой оборванной, хвост за ней обнуляется
+     */
+    static CandleSegment open(Path path, long sequence) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Сегмент слишком короткий: " + path);
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(OFFSET_MAGIC) != MAGIC
+                || header.getInt(OFFSET_VERSION) != VERSION
+                || header.getInt(OFFSET_RECORD_SIZE) != RECORD_SIZE) {
+                throw new IOException("Неверный заголовок сегмента: " + path);
+            }
+            int capacity = header.getInt(OFFSET_CAPACITY);
+            if (capacity <= 0 || channel.size() < HEADER_SIZE + (long) capacity * RECORD_SIZE) {
+                throw new IOException("Неверная емкость сегмента: " + path);
+            }
+
+            CandleSegment segment = new CandleSegment(path, sequence, channel, map(channel, capacity), capacity);
+            segment.flags = header.getInt(OFFSET_FLAGS);
+            segment.recover();
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, int capacity) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+            HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Добавляет запись в конец сегмента
+     *
+     * @return false если сегмент заполнен
+     */
+    boolean append(long time, double open, double high, double low, double close, double volume) {
+        if (count >= capacity) return false;
+
+        int position = recordOffset(count);
+        scratchBuffer.putLong(0, time)
+            .putDouble(8, open)
+            .putDouble(16, high)
+            .putDouble(24, low)
+            .putDouble(32, close)
+            .putDouble(40, volume);
+
+        crc.reset();
+        crc.update(scratch, 0, DATA_SIZE);
+
+        buffer.put(position, scratch, 0, DATA_SIZE);
+        buffer.putInt(position + DATA_SIZE, (int) crc.getValue());
+        // Маркер последним - до него запись считается незавершенной
+        buffer.putInt(position + DATA_SIZE + 4, COMMIT_MARKER);
+
+        count++;
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        writeHeaderState();
+        return true;
+    }
+
+    /**
+     * Передает записи сегмента в порядке записи
+     */
+    void readInto(RecordSink sink) {
+        for (int i = 0; i < count; i++) {
+            int position = recordOffset(i);
+            sink.accept(
+                buffer.getLong(position),
+                buffer.getDouble(position + 8),
+                buffer.getDouble(position + 16),
+                buffer.getDouble(position + 24),
+                buffer.getDouble(position + 32),
+                buffer.getDouble(position + 40));
+        }
+    }
+
+    void markBase() {
+        flags |= FLAG_BASE;
+        writeHeaderState();
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    boolean isBase() {
+        return (flags & FLAG_BASE) != 0;
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Явно освободить отображение нельзя - буфер освободит сборщик мусора
+        channel.close();
+    }
+
+    private void recover() {
+        int valid = 0;
+        while (valid < capacity && isRecordValid(valid)) {
+            long time = buffer.getLong(recordOffset(valid));
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+            valid++;
+        }
+        count = valid;
+
+        // Оборванная запись после сбоя - обнуляем хвост, чтобы новые записи легли на чистое место
+        boolean torn = false;
+        int end = recordOffset(capacity);
+        for (int i = recordOffset(valid); i < end; i++) {
+            if (buffer.get(i) != 0) {
+                torn = true;
+                buffer.put(i, (byte) 0);
+            }
+        }
+        if (torn) {
+            System.err.println("Сегмент " + path.getFileName() + ": отброшена оборванная запись #" + valid);
+        }
+        writeHeaderState();
+    }
+
+    private boolean isRecordValid(int index) {
+        int position = recordOffset(index);
+        if (buffer.getInt(position + DATA_SIZE + 4) != COMMIT_MARKER) return false;
+
+        buffer.get(position, scratch, 0, DATA_SIZE);
+        crc.reset();
+        crc.update(scratch, 0, DATA_SIZE);
+        return buffer.getInt(position + DATA_SIZE) == (int) crc.getValue();
+    }
+
+    private void writeHeaderState() {
+        buffer.putInt(OFFSET_FLAGS, flags);
+        buffer.putInt(OFFSET_COUNT, count);
+        buffer.putLong(OFFSET_MIN_TIME, minTime);
+        buffer.putLong(OFFSET_MAX_TIME, maxTime);
+    }
+
+    private static int recordOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    /**
+     * Получатель записей при чтении сегмента
+     */
+    interface RecordSink {
+        void accept(long time, double open, double high, double low, double close, double volume);
+    }
+
+    /**
+     * Добавляет прочитанные записи в ряд: запись с тем же временем, что и последняя свеча,
+     * заменяет ее (обновление открытой свечи), более старая вливается по времени
+     */
+    static final class SeriesSink implements RecordSink {
+        private final CandleSeries series;
+        private final CandleSeries single = new CandleSeries(1);
+        private final long sinceTime;
+
+        SeriesSink(CandleSeries series, long sinceTime) {
+            this.series = series;
+            this.sinceTime = sinceTime;
+        }
+
+        @Override
+        public void accept(long time, double open, double high, double low, double close, double volume) {
+            if (time < sinceTime) return;
+
+            long lastTime = series.getLastTime();
+            if (series.isEmpty() || time > lastTime) {
+                series.append(time, open, high, low, close, volume);
+            } else if (time == lastTime) {
+                series.set(series.size() - 1, time, open, high, low, close, volume);
+            } else {
+                single.clear();
+                single.append(time, open, high, low, close, volume);
+                series.merge(single);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.dayab.widget.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Локальное хранилище свечей на диске
+ * Для каждого пула, интервала и агрегации ведется свой журнал из сегментов,
+ * отображенных в память. График открывается из хранилища сразу,
+ * а из API догружается только хвост.
+ *
+ * Каталог по умолчанию: ~/.govno-screamer/candles
+ */
+public class CandleStore implements Closeable {
+
+    private static final String POOLS_DIRECTORY = "pools";
+
+    private final Path directory;
+    private final Map<String, CandleLog> logs = new HashMap<>();
+    private boolean closed;
+
+    public CandleStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Открывает хранилище в домашнем каталоге пользователя
+     */
+    public static CandleStore openDefault() throws IOException {
+        return new CandleStore(Paths.get(System.getProperty("user.home"), ".govno-screamer", "candles"));
+    }
+
+    /**
+     * Читает сохраненные свечи не старше sinceTime, упорядоченные по времени
+     *
+     * @param sinceTime нижняя граница времени в секундах эпохи
+     */
+    public synchronized CandleSeries load(String poolAddress, String timeframe, int aggregate, long sinceTime) throws IOException {
+        return getLog(poolAddress, timeframe, aggregate).load(sinceTime);
+    }
+
+    /**
+     * Дописывает свечи в журнал ряда. Свечи с уже известным временем
+     * (открытая свеча) заменят прежние при следующем чтении.
+     */
+    public synchronized void append(String poolAddress, String timeframe, int aggregate, CandleSeries candles) throws IOException {
+        if (candles == null || candles.isEmpty()) return;
+        getLog(poolAddress, timeframe, aggregate).append(candles);
+    }
+
+    /**
+     * Последний известный адрес пула токена, чтобы открыть график без запроса к API
+     *
+     * @return адрес или null, если он еще не сохранялся
+     */
+    public synchronized String loadPoolAddress(String tokenAddress) {
+        Path file = directory.resolve(POOLS_DIRECTORY).resolve(sanitize(tokenAddress));
+        try {
+            if (!Files.exists(file)) return null;
+            String address = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            return address.isEmpty() ? null : address;
+        } catch (IOException e) {
+            System.err.println("Ошибка чтения адреса пула: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void savePoolAddress(String tokenAddress, String poolAddress) {
+        Path pools = directory.resolve(POOLS_DIRECTORY);
+        Path file = pools.resolve(sanitize(tokenAddress));
+        try {
+            Files.createDirectories(pools);
+            Path temp = pools.resolve(file.getFileName() + ".tmp");
+            Files.write(temp, poolAddress.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Ошибка сохранения адреса пула: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (CandleLog log : logs.values()) {
+            log.close();
+        }
+        logs.clear();
+    }
+
+    private CandleLog getLog(String poolAddress, String timeframe, int aggregate) throws IOException {
+        if (closed) {
+            throw new IOException("Хранилище свечей закрыто");
+        }
+        String key = sanitize(poolAddress) + "_" + sanitize(timeframe) + "_" + aggregate;
+        CandleLog log = logs.get(key);
+        if (log == null) {
+            log = CandleLog.open(directory.resolve(key));
+            logs.put(key, log);
+        }
+        return log;
+    }
+
+    /**
+     * Оставляет в имени только безопасные для файловой системы символы
+     */
+    private static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_';
+            sb.append(safe ? c : '-');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.dayab.widget;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.dayab.widget.chart.ChartProjection;
+import com.dayab.widget.chart.ChartRenderer;
+import com.dayab.widget.chart.RenderResources;
+import com.dayab.widget.model.CandleSeries;
+
+/**
+ * Кадр графика без изменения данных не должен выделять память
+ * Рисуем ChartRenderer в BufferedImage размером с панель виджета и считаем байты,
+ * выделенные потоком за кадр (ThreadMXBean.getThreadAllocatedBytes) после прогрева JIT.
+ * Небольшой допуск - на выделения внутри Java2D (блиты изображений, шрифты, овалы).
+ */
+class ChartRendererAllocationTest {
+
+    private static final int WIDTH = 240;
+    private static final int HEIGHT = 150;
+    private static final int WARMUP_FRAMES = 5_000;
+    private static final int MEASURED_FRAMES = 1_000;
+    private static final long MAX_BYTES_PER_FRAME = 1024;
+
+    @Test
+    void paintPathDoesNotAllocatePerFrame() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        CandleSeries series = randomWalk(1_000, 42);
+        for (CryptoScreamerWidget.Theme theme : CryptoScreamerWidget.Theme.values()) {
+            for (ChartProjection.Mode mode : ChartProjection.Mode.values()) {
+                long bytes = bytesPerFrame(threads, series, theme, mode);
+                assertTrue(bytes <= MAX_BYTES_PER_FRAME,
+                           theme + " " + mode + ": " + bytes + " байт на кадр");
+            }
+        }
+    }
+
+    private static long bytesPerFrame(com.sun.management.ThreadMXBean threads, CandleSeries series,
+                                      CryptoScreamerWidget.Theme theme, ChartProjection.Mode mode) {
+        RenderResources resources = CryptoScreamerWidget.createRenderResources(theme);
+        ChartRenderer renderer = new ChartRenderer();
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                renderer.render(g2d, WIDTH, HEIGHT, series, 0, series.size(), mode, resources);
+            }
+
+            long thread = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                renderer.render(g2d, WIDTH, HEIGHT, series, 0, series.size(), mode, resources);
+            }
+            return (threads.getThreadAllocatedBytes(thread) - before) / MEASURED_FRAMES;
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    private static CandleSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        CandleSeries result = new CandleSeries(size);
+        double price = 1.0;
+        long time = 1_700_000_000L;
+        for (int i = 0; i < size; i++) {
+            double open = price;
+            double close = Math.max(0.0001, open * (1 + (random.nextDouble() - 0.5) * 0.02));
+            double high = Math.max(open, close) * (1 + random.nextDouble() * 0.005);
+            double low = Math.min(open, close) * (1 - random.nextDouble() * 0.005);
+            result.append(time + i * 60L, open, high, low, close, random.nextDouble() * 1000);
+            price = close;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.dayab.widget.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Окно TickHistory против пересчета перебором
+ */
+class TickHistoryTest {
+
+    @Test
+    void windowMatchesBruteForce() {
+        Random random = new Random(7);
+        TickHistory ticks = new TickHistory(50, 60_000);
+        long time = 0;
+        double price = 1.0;
+        for (int n = 0; n < 5_000; n++) {
+            time += random.nextInt(random.nextInt(10) == 0 ? 30_000 : 5_000);
+            price = Math.max(0.01, price * (1 + (random.nextDouble() - 0.5) * 0.05));
+            ticks.append(time, price, Double.NaN, Double.NaN);
+            assertWindow(ticks);
+        }
+    }
+
+    @Test
+    void ignoresTicksWithoutPrice() {
+        TickHistory ticks = new TickHistory(10, 60_000);
+        ticks.append(0, 2.0, Double.NaN, Double.NaN);
+        ticks.append(5_000, 3.0, Double.NaN, Double.NaN);
+
+        // Снимок с ошибкой API приходит с ценой 0
+        assertFalse(ticks.append(10_000, 0.0, Double.NaN, Double.NaN));
+        assertFalse(ticks.append(15_000, Double.NaN, Double.NaN, Double.NaN));
+
+        assertEquals(2, ticks.size());
+        assertEquals(2.0, ticks.getWindowMinPrice());
+        assertEquals(50.0, ticks.getWindowDeltaPercent(), 1e-9);
+    }
+
+    private static void assertWindow(TickHistory ticks) {
+        int start = ticks.getWindowStartIndex();
+        int last = ticks.size() - 1;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = start; i <= last; i++) {
+            assertEquals(true, ticks.getTime(i) >= ticks.getTime(last) - ticks.getWindowMillis() || i == start);
+            min = Math.min(min, ticks.getPrice(i));
+            max = Math.max(max, ticks.getPrice(i));
+        }
+        // Тик перед окном (если он еще хранится) старше окна
+        if (start > 0) {
+            assertEquals(true, ticks.getTime(start - 1) < ticks.getTime(last) - ticks.getWindowMillis());
+        }
+        assertEquals(min, ticks.getWindowMinPrice());
+        assertEquals(max, ticks.getWindowMaxPrice());
+        assertEquals(ticks.getPrice(last) - ticks.getPrice(start), ticks.getWindowDelta());
+    }
+}
@@ -0,0 +1,136 @@
+package com.dayab.widget.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Планировщик обновлений против локального HTTP сервера-заглушки
+ * Сервер держит каждый ответ, пока тест его не отпустит, - так обновление
+ * остается "в процессе" ровно столько, сколько нужно тесту.
+ */
+class RefreshSchedulerTest {
+
+    // Период больше времени теста: после первого тика запуски идут только по triggerNow
+    private static final long PERIOD_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int RACE_ROUNDS = 2_000;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpClient client;
+    private RefreshScheduler scheduler;
+
+    // Пришедшие на сервер запросы и разрешения на ответ
+    private final Semaphore arrived = new Semaphore(0);
+    private final Semaphore replies = new Semaphore(0);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            arrived.release();
+            try {
+                replies.tryAcquire(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        scheduler = new RefreshScheduler();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        replies.release(100);
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void runsTriggerOnceAfterInFlightUpdate() throws Exception {
+        scheduler.schedule("candles", PERIOD_MILLIS, 0, this::fetch);
+        assertTrue(arrived.tryAcquire(5, TimeUnit.SECONDS), "Первый тик не запустил обновление");
+
+        // Несколько запусков во время обновления - один запуск после него
+        scheduler.triggerNow("candles");
+        scheduler.triggerNow("candles");
+        Thread.sleep(200);
+        assertEquals(0, arrived.availablePermits(), "Запуск во время обновления не дождался его");
+
+        replies.release();
+        assertTrue(arrived.tryAcquire(5, TimeUnit.SECONDS), "Отложенный запуск потерян");
+        replies.release();
+
+        Thread.sleep(200);
+        assertEquals(0, arrived.availablePermits(), "Лишний запуск после отложенного");
+    }
+
+    @Test
+    void doesNotLoseTriggerRacingWithCompletion() throws Exception {
+        // Окно гонки - несколько инструкций, поэтому без сети: обновление завершает
+        // отдельный поток с небольшой случайной задержкой, одновременно с triggerNow
+        Semaphore started = new Semaphore(0);
+        AtomicReference<CompletableFuture<Void>> current = new AtomicReference<>();
+        scheduler.schedule("candles", PERIOD_MILLIS, 0, () -> {
+            CompletableFuture<Void> update = new CompletableFuture<>();
+            current.set(update);
+            started.release();
+            return update;
+        });
+        assertTrue(started.tryAcquire(5, TimeUnit.SECONDS), "Первый тик не запустил обновление");
+
+        // В любом порядке после ответа и triggerNow - ровно один новый запуск
+        for (int i = 0; i < RACE_ROUNDS; i++) {
+            CompletableFuture<Void> update = current.get();
+            int spins = ThreadLocalRandom.current().nextInt(2_000);
+            CompletableFuture<Void> completer = CompletableFuture.runAsync(() -> {
+                for (int n = 0; n < spins; n++) {
+                    Thread.onSpinWait();
+                }
+                update.complete(null);
+            });
+            scheduler.triggerNow("candles");
+            completer.get(5, TimeUnit.SECONDS);
+
+            assertTrue(started.tryAcquire(5, TimeUnit.SECONDS), "Запуск потерян в раунде " + i);
+        }
+        current.get().complete(null);
+
+        // Застрявший признак повторного запуска дал бы лишний запуск
+        Thread.sleep(200);
+        assertEquals(0, started.availablePermits(), "Лишний запуск после гонки");
+    }
+
+    private CompletableFuture<?> fetch() {
+        HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + server.getAddress().getPort() + "/candles")).build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,211 @@
+package com.dayab.widget.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dayab.widget.service.RequestScheduler.Priority;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Планировщик запросов против локального HTTP сервера-заглушки
+ * Ответы 429 обрабатываются так же, как в GeckoTerminalApiService.executeAsync:
+ * Retry-After передается в onRateLimited, остальные ответы - onSuccess.
+ */
+class RequestSchedulerTest {
+
+    private HttpServer server;
+    private HttpClient client;
+    private RequestScheduler scheduler;
+
+    // Запросы, дошедшие до сервера, и заготовленные ответы (по умолчанию 200)
+    private final List<Hit> hits = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Reply> replies = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            hits.add(new Hit(exchange.getRequestURI().getPath(), System.nanoTime()));
+            Reply reply = replies.poll();
+            int status = reply != null ? reply.status : 200;
+            if (reply != null && reply.retryAfter != null) {
+                exchange.getResponseHeaders().add("Retry-After", reply.retryAfter);
+            }
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        // Прогрев клиента, чтобы установка первого соединения не путала порядок запросов
+        client.send(request("/warmup"), HttpResponse.BodyHandlers.ofString());
+        hits.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void sendsQueuedRequestsByPriority() throws Exception {
+        // Один запрос в 500 мс: первый забирает бюджет, остальные успевают встать в очередь
+        scheduler = new RequestScheduler(120, 1);
+        send(Priority.OHLCV, "/first").get(10, TimeUnit.SECONDS);
+        CompletableFuture<HttpResponse<String>> ohlcv = send(Priority.OHLCV, "/ohlcv");
+        CompletableFuture<HttpResponse<String>> pool = send(Priority.POOL, "/pool");
+        CompletableFuture<HttpResponse<String>> price = send(Priority.PRICE, "/price");
+        CompletableFuture<HttpResponse<String>> ohlcv2 = send(Priority.OHLCV, "/ohlcv2");
+
+        CompletableFuture.allOf(ohlcv, pool, price, ohlcv2).get(10, TimeUnit.SECONDS);
+
+        // По приоритету, внутри приоритета - в порядке постановки
+        assertEquals(List.of("/first", "/price", "/pool", "/ohlcv", "/ohlcv2"), paths());
+    }
+
+    @Test
+    void mergesQueuedRequestsWithSameKey() throws Exception {
+        scheduler = new RequestScheduler(120, 1);
+        send(Priority.PRICE, "/first").get(10, TimeUnit.SECONDS);
+        CompletableFuture<HttpResponse<String>> a = submit(Priority.PRICE, "/same");
+        CompletableFuture<HttpResponse<String>> b = submit(Priority.PRICE, "/same");
+
+        assertSame(a, b);
+        a.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("/first", "/same"), paths());
+    }
+
+    @Test
+    void pausesForRetryAfter() throws Exception {
+        scheduler = new RequestScheduler(6000, 5);
+        replies.add(new Reply(429, "1"));
+
+        assertEquals(429, send(Priority.PRICE, "/limited").get(10, TimeUnit.SECONDS).statusCode());
+        assertEquals(200, send(Priority.PRICE, "/after").get(10, TimeUnit.SECONDS).statusCode());
+
+        assertEquals(List.of("/limited", "/after"), paths());
+        assertGapAtLeast(0, 1, 1_000);
+    }
+
+    @Test
+    void backsOffExponentiallyWithoutRetryAfter() throws Exception {
+        scheduler = new RequestScheduler(6000, 5);
+        replies.add(new Reply(429, null));
+        replies.add(new Reply(429, null));
+
+        send(Priority.POOL, "/1").get(10, TimeUnit.SECONDS);
+        send(Priority.POOL, "/2").get(10, TimeUnit.SECONDS);
+        send(Priority.POOL, "/3").get(10, TimeUnit.SECONDS);
+
+        // Пауза 2 с после первого 429 и вдвое больше после второго подряд
+        assertGapAtLeast(0, 1, 2_000);
+        assertGapAtLeast(1, 2, 4_000);
+    }
+
+    @Test
+    void dropsRequestsThatWaitTooLong() throws Exception {
+        // Пауза из Retry-After дольше, чем запрос цены может ждать в очереди
+        scheduler = new RequestScheduler(6000, 5);
+        replies.add(new Reply(429, "7"));
+        send(Priority.PRICE, "/limited").get(10, TimeUnit.SECONDS);
+
+        CompletableFuture<HttpResponse<String>> stale = send(Priority.PRICE, "/stale");
+        try {
+            stale.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException, e.getCause().toString());
+        }
+        assertTrue(stale.isCompletedExceptionally());
+        assertEquals(List.of("/limited"), paths());
+        assertEquals(0, scheduler.getQueueSize());
+    }
+
+    /**
+     * Запрос через планировщик без обработки ответа
+     */
+    private CompletableFuture<HttpResponse<String>> submit(Priority priority, String path) {
+        return scheduler.submit(priority, path,
+            () -> client.sendAsync(request(path), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    /**
+     * Запрос через планировщик с обработкой 429, как в GeckoTerminalApiService
+     */
+    private CompletableFuture<HttpResponse<String>> send(Priority priority, String path) {
+        return submit(priority, path)
+            .thenApply(response -> {
+                if (response.statusCode() == 429) {
+                    scheduler.onRateLimited(response.headers().firstValue("Retry-After")
+                        .map(value -> TimeUnit.SECONDS.toMillis(Long.parseLong(value)))
+                        .orElse(-1L));
+                } else {
+                    scheduler.onSuccess();
+                }
+                return response;
+            });
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(
+            URI.create("http://localhost:" + server.getAddress().getPort() + path)).build();
+    }
+
+    private List<String> paths() {
+        List<String> paths = new ArrayList<>();
+        for (Hit hit : hits) {
+            paths.add(hit.path);
+        }
+        return paths;
+    }
+
+    private void assertGapAtLeast(int from, int to, long millis) {
+        long gap = TimeUnit.NANOSECONDS.toMillis(hits.get(to).nanos - hits.get(from).nanos);
+        // Небольшой запас на округление таймеров
+        assertTrue(gap >= millis - 50, "Между запросами " + gap + " мс, ожидалось не меньше " + millis);
+    }
+
+    private static final class Hit {
+        final String path;
+        final long nanos;
+
+        Hit(String path, long nanos) {
+            this.path = path;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final class Reply {
+        final int status;
+        final String retryAfter;
+
+        Reply(int status, String retryAfter) {
+            this.status = status;
+            this.retryAfter = retryAfter;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.dayab.widget.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dayab.widget.model.PriceData;
+import com.dayab.widget.model.WatchedToken;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Список наблюдения против локального сервера-заглушки Simple API
+ * Заглушка отвечает ценой для каждого адреса из запроса, причем ключи в ответе
+ * в нижнем регистре - как API, меняющий регистр адресов.
+ */
+class WatchlistServiceTest {
+
+    private static final String PRICE_PATH = "/simple/networks/";
+
+    private HttpServer server;
+    private GeckoTerminalApiService apiService;
+    private WatchlistService watchlist;
+
+    // Запросы цен, дошедшие до сервера: сеть и адреса
+    private final List<Hit> hits = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            // /simple/networks/{сеть}/token_price/{адрес,адрес,...}
+            String[] parts = exchange.getRequestURI().getPath().substring(PRICE_PATH.length()).split("/");
+            List<String> addresses = Arrays.asList(parts[2].split(","));
+            hits.add(new Hit(parts[0], addresses));
+
+            byte[] body = priceResponse(addresses).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        apiService = new GeckoTerminalApiService(
+            "http://localhost:" + server.getAddress().getPort(), new RequestScheduler(6000, 10));
+        watchlist = new WatchlistService(apiService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        apiService.close();
+        server.stop(0);
+    }
+
+    @Test
+    void splitsLargeWatchlistIntoBatches() throws Exception {
+        int count = 2 * GeckoTerminalApiService.MAX_ADDRESSES_PER_REQUEST + 5;
+        Map<String, PriceData> received = new ConcurrentHashMap<>();
+        for (int i = 0; i < count; i++) {
+            WatchedToken token = new WatchedToken("ton", address(i), "T" + i);
+            watchlist.addToken(token, priceData -> received.put(token.getAddress(), priceData));
+        }
+
+        watchlist.refresh().get(10, TimeUnit.SECONDS);
+
+        // Пачки по лимиту API (уходят параллельно, порядок не важен), каждый адрес - ровно в одной
+        List<Integer> sizes = new ArrayList<>();
+        List<String> requested = new ArrayList<>();
+        for (Hit hit : hits) {
+            assertEquals("ton", hit.network);
+            sizes.add(hit.addresses.size());
+            requested.addAll(hit.addresses);
+        }
+        sizes.sort(null);
+        assertEquals(List.of(5, GeckoTerminalApiService.MAX_ADDRESSES_PER_REQUEST,
+                             GeckoTerminalApiService.MAX_ADDRESSES_PER_REQUEST), sizes);
+        assertEquals(count, requested.stream().distinct().count());
+
+        // Ответ с адресами в нижнем регистре доходит до подписчика каждого токена
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            PriceData priceData = received.get(address(i));
+            assertNotNull(priceData, address(i));
+            assertEquals(price(i), priceData.getCurrentPriceFixed().doubleValue(), 1e-12);
+            assertEquals("T" + i, priceData.getSymbol());
+        }
+    }
+
+    @Test
+    void groupsNetworksIgnoringCase() throws Exception {
+        Map<String, PriceData> received = new ConcurrentHashMap<>();
+        WatchedToken upper = new WatchedToken("TON", address(1), "UPPER");
+        WatchedToken lower = new WatchedToken("ton", address(2), "LOWER");
+        watchlist.addToken(upper, priceData -> received.put("upper", priceData));
+        watchlist.addToken(lower, priceData -> received.put("lower", priceData));
+
+        watchlist.refresh().get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, hits.size());
+        assertEquals("ton", hits.get(0).network);
+        assertEquals(List.of(address(1), address(2)), hits.get(0).addresses);
+        assertEquals(price(1), received.get("upper").getCurrentPriceFixed().doubleValue(), 1e-12);
+        assertEquals(price(2), received.get("lower").getCurrentPriceFixed().doubleValue(), 1e-12);
+    }
+
+    /**
+     * Адрес в смешанном регистре, как у адресов TON
+     */
+    private static String address(int index) {
+        return "EQTokenAddr" + index;
+    }
+
+    private static double price(int index) {
+        return 1 + index / 1000.0;
+    }
+
+    private static String priceResponse(List<String> addresses) {
+        StringBuilder prices = new StringBuilder();
+        for (String address : addresses) {
+            int index = Integer.parseInt(address.substring("EQTokenAddr".length()));
+            if (prices.length() > 0) {
+                prices.append(',');
+            }
+            prices.append('"').append(address.toLowerCase(Locale.ROOT)).append("\":\"").append(price(index)).append('"');
+        }
+        return "{\"data\":{\"type\":\"simple_token_price\",\"attributes\":{\"token_prices\":{" + prices + "}}}}";
+    }
+
+    private static final class Hit {
+        final String network;
+        final List<String> addresses;
+
+        Hit(String network, List<String> addresses) {
+            this.network = network;
+            this.addresses = addresses;
+        }
+    }
+}